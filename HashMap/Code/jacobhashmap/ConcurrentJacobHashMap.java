@@ -0,0 +1,218 @@
+package jacobhashmap;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe variant of {@link JacobHashMap} for multi-threaded loading.
+ *
+ * Each bin is an immutable singly linked list published with a CAS on the bin
+ * head, so add() never takes a lock and contains() is a plain volatile read
+ * plus a walk of the chain.  Resizing doubles the table: bins are claimed in
+ * strides by whichever threads show up (the one that triggered the resize and
+ * any add() that runs into a moved bin), copied into the new table, and the
+ * old bin is replaced by a forwarding marker.  Lookups follow the marker, so
+ * readers are never blocked by a resize.
+ */
+public class ConcurrentJacobHashMap<T extends CharSequence> {
+
+    private static class Node {
+        final int hash;
+        final CharSequence key;
+        final Node next;
+
+        Node(int hash, CharSequence key, Node next) {
+            this.hash = hash;
+            this.key = key;
+            this.next = next;
+        }
+    }
+
+    /** Placed in a bin of the old table once its contents have been copied. */
+    private static final class Forward extends Node {
+        final AtomicReferenceArray<Node> target;
+
+        Forward(AtomicReferenceArray<Node> target) {
+            super(0, null, null);
+            this.target = target;
+        }
+    }
+
+    /** One in-progress doubling of the table. */
+    private static final class Transfer {
+        final AtomicReferenceArray<Node> from;
+        final AtomicReferenceArray<Node> to;
+        final Forward forward;
+        final AtomicInteger nextBin;     // bins [0, nextBin) are still unclaimed
+        final AtomicInteger remaining;   // bins not yet moved
+
+        Transfer(AtomicReferenceArray<Node> from) {
+            this.from = from;
+            this.to = new AtomicReferenceArray<>(from.length() * 2);
+            this.forward = new Forward(to);
+            this.nextBin = new AtomicInteger(from.length());
+            this.remaining = new AtomicInteger(from.length());
+        }
+    }
+
+    /** Current table plus the transfer out of it, swapped as one unit. */
+    private static final class State {
+        final AtomicReferenceArray<Node> table;
+        final Transfer transfer;
+
+        State(AtomicReferenceArray<Node> table, Transfer transfer) {
+            this.table = table;
+            this.transfer = transfer;
+        }
+    }
+
+    private final AtomicReference<State> state;
+    private final LongAdder count = new LongAdder();
+    private final JacobHashFunction hashFunction;
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double MAX_LOAD = 0.75;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final int STRIDE = 64;           // bins claimed per helper step
+
+    public ConcurrentJacobHashMap() {
+        this(StandardHashFunction.MURMUR3);
+    }
+
+    public ConcurrentJacobHashMap(JacobHashFunction hashFunction) {
+        this.hashFunction = Objects.requireNonNull(hashFunction);
+        state = new AtomicReference<>(
+                new State(new AtomicReferenceArray<>(DEFAULT_CAPACITY), null));
+    }
+
+    public void add(T value) {
+        Objects.requireNonNull(value);
+        int h = hashFunction.hash(value);
+        AtomicReferenceArray<Node> tab = state.get().table;
+        while (true) {
+            int i = h & (tab.length() - 1);
+            Node head = tab.get(i);
+            if (head instanceof Forward) {
+                helpTransfer();
+                tab = ((Forward) head).target;
+                continue;
+            }
+            if (find(head, h, value)) return;
+            if (tab.compareAndSet(i, head, new Node(h, value, head))) {
+                count.increment();
+                // Only check the load when we collided; summing the LongAdder on
+                // every add would serialise the threads again.
+                if (head != null) maybeResize();
+                return;
+            }
+        }
+    }
+
+    public boolean contains(T value) {
+        if (value == null) return false;
+        int h = hashFunction.hash(value);
+        AtomicReferenceArray<Node> tab = state.get().table;
+        while (true) {
+            Node head = tab.get(h & (tab.length() - 1));
+            if (!(head instanceof Forward)) return find(head, h, value);
+            tab = ((Forward) head).target;
+        }
+    }
+
+    public int size()      { return (int) Math.min(Integer.MAX_VALUE, count.sum()); }
+    public int capacity()  { return state.get().table.length(); }
+
+    /**
+     * Doubles the table until it has at least {@code newCap} bins (never
+     * shrinks).  Other threads keep adding and reading meanwhile.
+     */
+    public void resize(int newCap) {
+        while (true) {
+            State s = state.get();
+            if (s.transfer != null) {
+                help(s);
+                Thread.onSpinWait();
+                continue;
+            }
+            int n = s.table.length();
+            if (n >= newCap || n >= MAX_CAPACITY) return;
+            State next = new State(s.table, new Transfer(s.table));
+            if (state.compareAndSet(s, next)) help(next);
+        }
+    }
+
+    private static boolean find(Node head, int h, CharSequence value) {
+        for (Node e = head; e != null; e = e.next) {
+            if (e.hash == h && contentEquals(e.key, value)) return true;
+        }
+        return false;
+    }
+
+    private void maybeResize() {
+        State s = state.get();
+        if (s.transfer != null) {
+            help(s);
+            return;
+        }
+        int n = s.table.length();
+        if (n < MAX_CAPACITY && count.sum() > n * MAX_LOAD) {
+            State next = new State(s.table, new Transfer(s.table));
+            if (state.compareAndSet(s, next)) help(next);
+        }
+    }
+
+    private void helpTransfer() {
+        State s = state.get();
+        if (s.transfer != null) help(s);
+    }
+
+    /**
+     * Claims strides of unmoved bins until none are left.  Whoever moves the
+     * last bin installs the new table.
+     */
+    private void help(State s) {
+        Transfer t = s.transfer;
+        int n = t.from.length();
+        while (true) {
+            int hi = t.nextBin.get();
+            if (hi <= 0) return;
+            int lo = Math.max(0, hi - STRIDE);
+            if (!t.nextBin.compareAndSet(hi, lo)) continue;
+            for (int i = lo; i < hi; i++) moveBin(t, i, n);
+            if (t.remaining.addAndGet(lo - hi) == 0) {
+                state.compareAndSet(s, new State(t.to, null));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Splits bin i into bins i and i+n of the new table, then swaps in the
+     * forwarding marker.  Nobody writes the two target bins before the marker
+     * is visible, so if an add() sneaks into bin i first we just redo the copy.
+     */
+    private static void moveBin(Transfer t, int i, int n) {
+        while (true) {
+            Node head = t.from.get(i);
+            Node lo = null, hi = null;
+            for (Node e = head; e != null; e = e.next) {
+                if ((e.hash & n) == 0) lo = new Node(e.hash, e.key, lo);
+                else hi = new Node(e.hash, e.key, hi);
+            }
+            t.to.set(i, lo);
+            t.to.set(i + n, hi);
+            if (t.from.compareAndSet(i, head, t.forward)) return;
+        }
+    }
+
+    private static boolean contentEquals(CharSequence a, CharSequence b) {
+        if (a == b) return true;
+        int n = a.length();
+        if (n != b.length()) return false;
+        for (int i = 0; i < n; i++) if (a.charAt(i) != b.charAt(i)) return false;
+        return true;
+    }
+}
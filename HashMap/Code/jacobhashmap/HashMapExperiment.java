@@ -0,0 +1,333 @@
+package jacobhashmap;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+public class HashMapExperiment {
+
+    private static String randomString(Random r, int min, int max) {
+        int len = r.nextInt(max - min + 1) + min;
+        StringBuilder sb = new StringBuilder(len);
+        for (int i = 0; i < len; i++) sb.append((char) ('a' + r.nextInt(26)));
+        return sb.toString();
+    }
+
+    // Builds both map types with every StandardHashFunction over the same keys
+    // and prints the chain/probe statistics.  Keys come from a file (one per
+    // line) when given, otherwise 20,000 random 5-15 char strings.
+    private static void compareHashFunctions(String keyFile) throws IOException {
+        List<String> keys = new ArrayList<>();
+        if (keyFile != null) {
+            for (String line : Files.readAllLines(Paths.get(keyFile))) {
+                if (!line.isEmpty()) keys.add(line);
+            }
+        } else {
+            Random rnd = new Random(42);
+            for (int i = 0; i < 20_000; i++) keys.add(randomString(rnd, 5, 15));
+        }
+        System.out.printf("Comparing hash functions over %,d keys%n", keys.size());
+
+        for (StandardHashFunction f : StandardHashFunction.values()) {
+            JacobHashMap<String> chained = new JacobHashMap<>(f);
+            JacobOpenHashMap<String> open = new JacobOpenHashMap<>(f);
+            for (String k : keys) {
+                chained.add(k);
+                open.add(k);
+            }
+            System.out.printf("%-10s chained: %s%n", f, chained.stats());
+            System.out.printf("%-10s open:    %s%n", f, open.stats());
+        }
+    }
+
+    // Times every single add() and reports the worst and 99.9th percentile
+    // latency, stop-the-world resize vs incremental resize.  Keys are
+    // generated up front so only the insert itself is measured.
+    private static void compareResizeLatency() {
+        int n = 160_000;
+        Random rnd = new Random(42);
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) keys[i] = randomString(rnd, 5, 15);
+
+        for (int round = 0; round < 3; round++) {          // first rounds warm up the JIT
+            for (boolean incremental : new boolean[]{false, true}) {
+                JacobHashMap<String> map =
+                        new JacobHashMap<>(StandardHashFunction.MURMUR3, incremental);
+                long[] lat = new long[n];
+                for (int i = 0; i < n; i++) {
+                    long t0 = System.nanoTime();
+                    map.add(keys[i]);
+                    lat[i] = System.nanoTime() - t0;
+                }
+                Arrays.sort(lat);
+                System.out.printf("round %d %-11s max=%8.3f ms  p99.9=%6.3f us  median=%6.3f us%n",
+                                  round, incremental ? "incremental" : "full",
+                                  lat[n - 1] / 1e6, lat[(int) (n * 0.999)] / 1e3, lat[n / 2] / 1e3);
+            }
+        }
+    }
+
+    // Inserts the same pre-generated keys into a ConcurrentJacobHashMap from
+    // 1, 2, 4, ... threads (up to the core count), each thread taking an equal
+    // slice, and reports throughput and speed-up over one thread.
+    private static void concurrentScaling(int n) throws IOException, InterruptedException {
+        Random rnd = new Random(42);
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) keys[i] = randomString(rnd, 5, 15);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int t = 1; t < cores; t *= 2) threadCounts.add(t);
+        threadCounts.add(cores);
+
+        try (FileWriter w = new FileWriter("results_concurrent.csv")) {
+            w.write("threads,size,nanoTime,opsPerSec\n");
+            double base = 0;
+            for (int threads : threadCounts) {
+                long best = Long.MAX_VALUE;
+                for (int round = 0; round < 5; round++) {     // best of 5, first rounds warm up
+                    best = Math.min(best, timeConcurrentInsert(keys, threads));
+                }
+                double opsPerSec = n / (best / 1e9);
+                if (base == 0) base = opsPerSec;
+                w.write(threads + "," + n + "," + best + "," + (long) opsPerSec + "\n");
+                System.out.printf("%2d threads: %,d inserts in %.2f ms  (%.2f Mops/s, x%.2f)%n",
+                                  threads, n, best / 1e6, opsPerSec / 1e6, opsPerSec / base);
+            }
+        }
+        System.out.println("Wrote results_concurrent.csv");
+    }
+
+    private static long timeConcurrentInsert(String[] keys, int threads) throws InterruptedException {
+        ConcurrentJacobHashMap<String> map = new ConcurrentJacobHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int from = (int) ((long) keys.length * t / threads);
+            int to = (int) ((long) keys.length * (t + 1) / threads);
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = from; i < to; i++) map.add(keys[i]);
+            });
+            workers[t].start();
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+        long elapsed = System.nanoTime() - t0;
+        if (map.size() > keys.length) throw new IllegalStateException("duplicate inserts");
+        return elapsed;
+    }
+
+    // Heap retained by n keys in JacobOpenHashMap vs OffHeapJacobHashMap.  The
+    // keys are built one at a time (and dropped) so only the map holds them.
+    private static void compareMemory(int n) {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            long before = usedHeap();
+            Random rnd = new Random(42);
+            Object keep;
+            long direct = 0;
+            long t0 = System.nanoTime();
+            if (offHeap) {
+                OffHeapJacobHashMap map = new OffHeapJacobHashMap();
+                for (int i = 0; i < n; i++) map.add(randomString(rnd, 5, 15));
+                direct = map.offHeapBytes();
+                keep = map;
+            } else {
+                JacobOpenHashMap<String> map = new JacobOpenHashMap<>();
+                for (int i = 0; i < n; i++) map.add(randomString(rnd, 5, 15));
+                keep = map;
+            }
+            long elapsed = System.nanoTime() - t0;
+            long heap = usedHeap() - before;
+            System.out.printf("%-8s %,d keys: heap %,d bytes, off-heap %,d bytes (%.1f bytes/key, %.0f ms)%n",
+                              offHeap ? "off-heap" : "on-heap", n, heap, direct,
+                              (double) (heap + direct) / n, elapsed / 1e6);
+            Reference.reachabilityFence(keep);   // measure while the map is still live
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    // Builds an n-key dictionary, writes it as a snapshot, then compares
+    // rebuilding it from the keys against mapping the snapshot file.
+    private static void compareSnapshotLoad(int n) throws IOException {
+        Random rnd = new Random(42);
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) keys[i] = randomString(rnd, 5, 15);
+        Path file = Paths.get("dictionary.jhms");
+
+        long t0 = System.nanoTime();
+        JacobHashMap<String> built = new JacobHashMap<>(StandardHashFunction.MURMUR3);
+        for (String k : keys) built.add(k);
+        long buildNs = System.nanoTime() - t0;
+        built.writeSnapshot(file);
+
+        t0 = System.nanoTime();
+        OffHeapJacobHashMap mapped = OffHeapJacobHashMap.openSnapshot(file);
+        long openNs = System.nanoTime() - t0;
+
+        int found = 0;
+        for (String k : keys) if (mapped.contains(k)) found++;
+        System.out.printf("rebuild %,d keys: %.1f ms%n", n, buildNs / 1e6);
+        System.out.printf("open snapshot (%,d bytes, %,d keys): %.3f ms, %,d/%,d lookups hit%n",
+                          Files.size(file), mapped.size(), openNs / 1e6, found, n);
+    }
+
+    // Loads 160k keys, then runs 1M contains() calls of which 90% miss, with
+    // and without the Bloom filter (1% false-positive target).
+    private static void compareBloomFilter() {
+        int n = 160_000, lookups = 1_000_000;
+        Random rnd = new Random(42);
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) keys[i] = randomString(rnd, 5, 15);
+        String[] queries = new String[lookups];
+        for (int i = 0; i < lookups; i++) {
+            queries[i] = i % 10 == 0 ? keys[rnd.nextInt(n)] : 'A' + randomString(rnd, 4, 14);
+        }
+
+        JacobHashMap<String> map = new JacobHashMap<>(StandardHashFunction.MURMUR3);
+        for (String k : keys) map.add(k);
+
+        for (boolean withBloom : new boolean[]{false, true}) {
+            if (withBloom) map.enableBloomFilter(n, 0.01);
+            long skippedBefore = map.bloomSkippedLookups();
+            long probesBefore = map.stats().probes();
+            int hits = 0;
+            long t0 = System.nanoTime();
+            for (String q : queries) if (map.contains(q)) hits++;
+            long elapsed = System.nanoTime() - t0;
+            System.out.printf("%-10s %,d lookups (%,d hits): %.1f ms, %,d bucket probes, %,d skipped by filter%n",
+                              withBloom ? "bloom" : "no filter", lookups, hits, elapsed / 1e6,
+                              map.stats().probes() - probesBefore,
+                              map.bloomSkippedLookups() - skippedBefore);
+        }
+    }
+
+    // Loads n keys one at a time and with addAll, then looks them all up one
+    // at a time and with containsAll, both against the addAll-loaded map.
+    private static void compareBulk(int n) {
+        Random rnd = new Random(42);
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) keys[i] = randomString(rnd, 5, 15);
+
+        for (int round = 0; round < 5; round++) {             // first rounds warm up
+            JacobHashMap<String> single = new JacobHashMap<>(StandardHashFunction.MURMUR3);
+            long t0 = System.nanoTime();
+            for (String k : keys) single.add(k);
+            long addNs = System.nanoTime() - t0;
+
+            JacobHashMap<String> bulk = new JacobHashMap<>(StandardHashFunction.MURMUR3);
+            t0 = System.nanoTime();
+            bulk.addAll(keys);
+            long addAllNs = System.nanoTime() - t0;
+            int hits = 0;
+            t0 = System.nanoTime();
+            for (String k : keys) if (bulk.contains(k)) hits++;
+            long containsNs = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            int batchHits = bulk.containsAll(keys).cardinality();
+            long containsAllNs = System.nanoTime() - t0;
+
+            System.out.printf("round %d: add %.1f ms vs addAll %.1f ms (capacity %,d); "
+                            + "contains %.1f ms vs containsAll %.1f ms (%,d/%,d hits)%n",
+                              round, addNs / 1e6, addAllNs / 1e6, bulk.capacity(),
+                              containsNs / 1e6, containsAllNs / 1e6, batchHits, hits);
+        }
+    }
+
+    // usage: java jacobhashmap.HashMapExperiment [chained|open|hashes [keyFile]|latency|
+    //                                            concurrent [n]|memory [n]|snapshot [n]|bloom|bulk [n]]
+    //   chained (default) - JacobHashMap, LinkedList buckets
+    //   open              - JacobOpenHashMap, Robin-Hood open addressing
+    //   hashes            - compare StandardHashFunction chain statistics
+    //   latency           - per-add latency, full vs incremental resize
+    //   concurrent        - ConcurrentJacobHashMap throughput vs thread count
+    //   memory            - bytes per key, on-heap vs OffHeapJacobHashMap
+    //   snapshot          - rebuild vs mmap a dictionary.jhms snapshot
+    //   bloom             - miss-heavy contains() with and without Bloom filter
+    //   bulk              - add/contains loops vs addAll/containsAll
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String impl = args.length >= 1 ? args[0] : "chained";
+        if (impl.equals("hashes")) {
+            compareHashFunctions(args.length >= 2 ? args[1] : null);
+            return;
+        }
+        if (impl.equals("latency")) {
+            compareResizeLatency();
+            return;
+        }
+        if (impl.equals("bulk")) {
+            compareBulk(args.length >= 2 ? Integer.parseInt(args[1]) : 1_000_000);
+            return;
+        }
+        if (impl.equals("bloom")) {
+            compareBloomFilter();
+            return;
+        }
+        if (impl.equals("snapshot")) {
+            compareSnapshotLoad(args.length >= 2 ? Integer.parseInt(args[1]) : 1_000_000);
+            return;
+        }
+        if (impl.equals("memory")) {
+            compareMemory(args.length >= 2 ? Integer.parseInt(args[1]) : 1_000_000);
+            return;
+        }
+        if (impl.equals("concurrent")) {
+            concurrentScaling(args.length >= 2 ? Integer.parseInt(args[1]) : 1_000_000);
+            return;
+        }
+        int[] sizes = {10_000, 20_000, 40_000, 80_000, 160_000};
+        Random rnd = new Random(42);
+
+        try (FileWriter w = new FileWriter("results.csv")) {
+            w.write("size,nanoTime,capacity\n");
+
+            for (int n : sizes) {
+                Consumer<String> add;
+                IntSupplier capacity;
+                if (impl.equals("open")) {
+                    JacobOpenHashMap<String> map = new JacobOpenHashMap<>();
+                    add = map::add;
+                    capacity = map::capacity;
+                } else {
+                    JacobHashMap<String> map = new JacobHashMap<>();
+                    add = map::add;
+                    capacity = map::capacity;
+                }
+
+                // Generate keys first so only the inserts are timed
+                // (JacobHashMapBenchmark in HashMap/JMH does proper warmed-up runs).
+                String[] keys = new String[n];
+                for (int i = 0; i < n; i++) keys[i] = randomString(rnd, 5, 15);
+
+                long t0 = System.nanoTime();
+                for (int i = 0; i < n; i++) add.accept(keys[i]);
+                long elapsed = System.nanoTime() - t0;
+
+                w.write(n + "," + elapsed + "," + capacity.getAsInt() + "\n");
+                System.out.printf("Inserted %,d strings into %s map (%.2f ms)%n",
+                                   n, impl, elapsed / 1_000_000.0);
+            }
+        }
+        System.out.println("Wrote results.csv");
+    }
+}
@@ -0,0 +1,95 @@
+package jacobhashmap;
+
+/**
+ * Blocked Bloom filter over CharSequence keys.
+ *
+ * Every key maps to one 512-bit block (a cache line of 8 longs) and sets k
+ * bits inside it, so a query touches a single cache line.  Blocking costs a
+ * little accuracy against a classic Bloom filter of the same size, so the
+ * bit count is rounded up to whole blocks.  mightContain() == false means the
+ * key was never added.
+ */
+public class JacobBloomFilter {
+
+    private static final int BLOCK_LONGS = 8;          // 512 bits
+    private static final int BLOCK_BITS = BLOCK_LONGS * 64;
+
+    private final long[] bits;
+    private final int blocks;
+    private final int hashes;                          // k
+    private final int expectedElements;
+
+    /**
+     * @param expectedElements elements the filter is sized for
+     * @param falsePositiveRate target rate at that many elements, in (0, 1)
+     */
+    public JacobBloomFilter(int expectedElements, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+        }
+        int n = Math.max(1, expectedElements);
+        double ln2 = Math.log(2);
+        double m = -n * Math.log(falsePositiveRate) / (ln2 * ln2);
+        long blockCount = Math.max(1, (long) Math.ceil(m / BLOCK_BITS));
+        if (blockCount * BLOCK_LONGS > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Bloom filter too large");
+        }
+        this.blocks = (int) blockCount;
+        this.bits = new long[blocks * BLOCK_LONGS];
+        this.hashes = Math.max(1, Math.min(16, (int) Math.round(m / n * ln2)));
+        this.expectedElements = n;
+    }
+
+    public void add(CharSequence key) {
+        long h = hash64(key);
+        int base = blockIndex(h) * BLOCK_LONGS;
+        long g = fmix64(h);
+        for (int i = 0, used = 0; i < hashes; i++, used += 9) {
+            if (used + 9 > 64) {
+                g = fmix64(g);
+                used = 0;
+            }
+            int bit = (int) (g >>> used) & (BLOCK_BITS - 1);
+            bits[base + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(CharSequence key) {
+        long h = hash64(key);
+        int base = blockIndex(h) * BLOCK_LONGS;
+        long g = fmix64(h);
+        for (int i = 0, used = 0; i < hashes; i++, used += 9) {
+            if (used + 9 > 64) {
+                g = fmix64(g);
+                used = 0;
+            }
+            int bit = (int) (g >>> used) & (BLOCK_BITS - 1);
+            if ((bits[base + (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    public int expectedElements() { return expectedElements; }
+    public int hashCount()        { return hashes; }
+    public long bitCount()        { return (long) bits.length * 64; }
+
+    private int blockIndex(long h) {
+        return (int) (((h >>> 32) * blocks) >>> 32);   // maps the top 32 bits onto [0, blocks)
+    }
+
+    /** 64-bit FNV-1a over the chars, finished with the murmur3 64-bit mixer. */
+    private static long hash64(CharSequence s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0, n = s.length(); i < n; i++) h = (h ^ s.charAt(i)) * 0x100000001b3L;
+        return fmix64(h);
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
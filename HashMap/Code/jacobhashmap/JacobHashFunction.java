@@ -0,0 +1,14 @@
+package jacobhashmap;
+
+/**
+ * Hash strategy used by JacobHashMap / JacobOpenHashMap.
+ *
+ * Implementations read the CharSequence directly (charAt/length) so hashing a
+ * StringBuilder or other non-String key allocates nothing.  The maps reduce the
+ * returned value to a bucket index themselves, so any int is fine.
+ */
+@FunctionalInterface
+public interface JacobHashFunction {
+
+    int hash(CharSequence s);
+}
@@ -0,0 +1,291 @@
+package jacobhashmap;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+public class JacobHashMap<T extends CharSequence> {
+
+    private LinkedList<T>[] data;   // buckets (null until first element)
+    private int size;               // stored elements
+    private final JacobHashFunction hashFunction;
+
+    // Incremental resizing: while oldData != null both tables are live and
+    // every add/contains moves a little of oldData (from migrateIndex upward)
+    // into data.  Lookups check the old bucket as well as the new one.
+    private final boolean incremental;
+    private LinkedList<T>[] oldData;
+    private int migrateIndex;
+
+    private long probes;            // bucket elements compared
+    private long operations;        // add + contains calls
+
+    // Optional Bloom filter in front of the buckets: a definite "no" skips the
+    // bucket walk entirely.  When size outgrows it, resize starts a bigger
+    // nextBloom that migrate fills as elements move (new adds go into both);
+    // it replaces bloom once oldData is empty, so there is no rebuild pass.
+    private JacobBloomFilter bloom;
+    private JacobBloomFilter nextBloom;
+    private double bloomFalsePositiveRate;
+    private long bloomSkips;        // lookups answered by the filter alone
+
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final double MAX_LOAD = 0.75;
+    // Work units (buckets visited + elements moved) spent per operation while
+    // migrating.  Moving C buckets and 0.75*C elements takes 1.75*C units, so
+    // 8 per operation finishes long before the doubled table reaches MAX_LOAD.
+    private static final int MIGRATE_BUDGET = 8;
+
+    /** Uses the original length-based hash. */
+    public JacobHashMap() {
+        this(StandardHashFunction.LENGTH);
+    }
+
+    public JacobHashMap(JacobHashFunction hashFunction) {
+        this(hashFunction, false);
+    }
+
+    /**
+     * @param incrementalResize spread each resize over later add/contains
+     *                          calls instead of rehashing everything at once
+     */
+    public JacobHashMap(JacobHashFunction hashFunction, boolean incrementalResize) {
+        this.hashFunction = Objects.requireNonNull(hashFunction);
+        this.incremental = incrementalResize;
+        data = newTable(DEFAULT_CAPACITY);
+    }
+
+    private static int indexFor(int hash, int capacity) {
+        return Math.floorMod(hash, capacity);
+    }
+
+    private boolean bucketContains(LinkedList<T> bucket, CharSequence value) {
+        if (bucket == null) return false;
+        for (T e : bucket) {
+            probes++;
+            if (value.equals(e)) return true;
+        }
+        return false;
+    }
+
+    private boolean lookup(CharSequence value, int h) {
+        operations++;
+        if (bloom != null && !bloom.mightContain(value)) {
+            bloomSkips++;
+            return false;
+        }
+        if (oldData != null && bucketContains(oldData[indexFor(h, oldData.length)], value)) {
+            return true;
+        }
+        return bucketContains(data[indexFor(h, data.length)], value);
+    }
+
+    public void add(T value) {
+        Objects.requireNonNull(value);
+        if (oldData != null) migrate(MIGRATE_BUDGET);
+        int h = hashFunction.hash(value);
+        if (!lookup(value, h)) {
+            bucket(data, indexFor(h, data.length)).add(value);
+            bloomAdd(value);
+            size++;
+            if ((double) size / data.length > MAX_LOAD) resize(data.length * 2);
+        }
+    }
+
+    /**
+     * Adds a whole batch.  The table is grown once, up front, to hold
+     * size() + values.size() elements, so the load itself never resizes.
+     */
+    public void addAll(Collection<? extends T> values) {
+        for (T v : values) Objects.requireNonNull(v);
+        reserve(size + values.size());
+        for (T v : values) {
+            int h = hashFunction.hash(v);
+            if (!lookup(v, h)) {
+                bucket(data, indexFor(h, data.length)).add(v);
+                bloomAdd(v);
+                size++;
+            }
+        }
+    }
+
+    public void addAll(T[] values) {
+        addAll(Arrays.asList(values));
+    }
+
+    /**
+     * Grows the table once so {@code expectedSize} elements fit under
+     * MAX_LOAD.  Any incremental resize is completed first, and the new table
+     * is filled immediately, so lookups afterwards only see one table.
+     */
+    private void reserve(int expectedSize) {
+        if (oldData != null) migrate(Integer.MAX_VALUE);
+        int cap = data.length;
+        while ((double) expectedSize / cap > MAX_LOAD) cap *= 2;
+        if (cap != data.length) {
+            oldData = data;
+            migrateIndex = 0;
+            data = newTable(cap);
+            migrate(Integer.MAX_VALUE);
+        }
+        if (bloom != null && expectedSize > bloom.expectedElements()) rebuildBloom(expectedSize);
+    }
+
+    /**
+     * Batch lookup: bit i of the result is set when the i-th query is in the
+     * map.  Any incremental resize is finished first, so each query hashes
+     * once and probes a single table, in list order.
+     */
+    public BitSet containsAll(List<? extends T> queries) {
+        if (oldData != null) migrate(Integer.MAX_VALUE);
+        long[] found = new long[(queries.size() + 63) >>> 6];
+        int i = 0;
+        for (T q : queries) {                       // one pass, even for a LinkedList
+            if (q != null && lookup(q, hashFunction.hash(q))) found[i >>> 6] |= 1L << i;
+            i++;
+        }
+        return BitSet.valueOf(found);
+    }
+
+    public BitSet containsAll(T[] queries) {
+        return containsAll(Arrays.asList(queries));
+    }
+
+    public boolean contains(T value) {
+        if (value == null) return false;
+        if (oldData != null) migrate(MIGRATE_BUDGET);
+        return lookup(value, hashFunction.hash(value));
+    }
+
+    public int size()      { return size; }
+    public int capacity()  { return data.length; }
+    public JacobHashFunction hashFunction() { return hashFunction; }
+
+    /**
+     * Puts a Bloom filter in front of the buckets so misses usually skip the
+     * bucket walk.  Sized for max(expectedElements, size()) at the given false
+     * positive rate; when the map outgrows it, resize() swaps in one twice as big,
+     * filled as the elements move to the new table.
+     */
+    public void enableBloomFilter(int expectedElements, double falsePositiveRate) {
+        bloomFalsePositiveRate = falsePositiveRate;
+        rebuildBloom(Math.max(expectedElements, size));
+    }
+
+    public void disableBloomFilter() {
+        bloom = null;
+        nextBloom = null;
+    }
+
+    /** Lookups (from add or contains) the Bloom filter answered without a bucket walk. */
+    public long bloomSkippedLookups() { return bloomSkips; }
+
+    private void rebuildBloom(int expectedElements) {
+        JacobBloomFilter f = new JacobBloomFilter(expectedElements, bloomFalsePositiveRate);
+        forEach(f::add);
+        bloom = f;
+        nextBloom = null;
+    }
+
+    private void bloomAdd(T value) {
+        if (bloom != null) bloom.add(value);
+        if (nextBloom != null) nextBloom.add(value);
+    }
+
+    /** True while an incremental resize still has old buckets to move. */
+    public boolean isResizing() { return oldData != null; }
+
+    /** Visits every element (both tables while an incremental resize runs). */
+    public void forEach(Consumer<? super T> action) {
+        if (oldData != null) {
+            for (LinkedList<T> bucket : oldData) if (bucket != null) bucket.forEach(action);
+        }
+        for (LinkedList<T> bucket : data) if (bucket != null) bucket.forEach(action);
+    }
+
+    /**
+     * Writes a compact binary snapshot of the elements (MURMUR3-hashed table
+     * plus key bytes, see OffHeapJacobHashMap).  Reopen it with
+     * OffHeapJacobHashMap.openSnapshot for read-only lookups straight from
+     * the mapped file.
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        OffHeapJacobHashMap copy = new OffHeapJacobHashMap(
+                (int) Math.ceil(size / MAX_LOAD) + 1, StandardHashFunction.MURMUR3);
+        forEach(copy::add);
+        copy.writeSnapshot(file);
+    }
+
+    /** Bucket-length histogram plus probe counters. */
+    public JacobHashStats stats() {
+        int oldLen = oldData == null ? 0 : oldData.length;
+        int[] lengths = new int[data.length + oldLen];
+        for (int i = 0; i < data.length; i++) lengths[i] = sizeOf(data[i]);
+        for (int i = 0; i < oldLen; i++) lengths[data.length + i] = sizeOf(oldData[i]);
+        return JacobHashStats.fromLengths(lengths, lengths.length, probes, operations);
+    }
+
+    /**
+     * Moves every element into a table of {@code newCap} buckets.  Elements
+     * are already unique, so they are relinked without the contains check.
+     * In incremental mode only the new table is allocated here and the
+     * elements follow over the next operations.  A Bloom filter that size
+     * has outgrown is replaced the same way: the bigger one is filled as the
+     * elements move, never in a separate pass.
+     */
+    public void resize(int newCap) {
+        if (oldData != null) migrate(Integer.MAX_VALUE);   // finish previous one
+        oldData = data;
+        migrateIndex = 0;
+        data = newTable(newCap);
+        if (bloom != null && size > bloom.expectedElements()) {
+            nextBloom = new JacobBloomFilter(Math.max(size, bloom.expectedElements()) * 2,
+                                             bloomFalsePositiveRate);
+        }
+        if (!incremental) migrate(Integer.MAX_VALUE);
+    }
+
+    private void migrate(int budget) {
+        while (budget > 0 && migrateIndex < oldData.length) {
+            LinkedList<T> bucket = oldData[migrateIndex];
+            budget--;
+            while (bucket != null && budget > 0 && !bucket.isEmpty()) {
+                T e = bucket.removeFirst();
+                bucket(data, indexFor(hashFunction.hash(e), data.length)).add(e);
+                if (nextBloom != null) nextBloom.add(e);
+                budget--;
+            }
+            if (bucket == null || bucket.isEmpty()) oldData[migrateIndex++] = null;
+        }
+        if (migrateIndex == oldData.length) {
+            oldData = null;
+            if (nextBloom != null) {
+                bloom = nextBloom;
+                nextBloom = null;
+            }
+        }
+    }
+
+    // Buckets are created on first use so allocating a table is a single
+    // array allocation, not one LinkedList per bucket.
+    @SuppressWarnings("unchecked")
+    private static <T> LinkedList<T>[] newTable(int capacity) {
+        return new LinkedList[capacity];
+    }
+
+    private static <T> LinkedList<T> bucket(LinkedList<T>[] table, int idx) {
+        LinkedList<T> b = table[idx];
+        if (b == null) table[idx] = b = new LinkedList<>();
+        return b;
+    }
+
+    private static int sizeOf(LinkedList<?> bucket) {
+        return bucket == null ? 0 : bucket.size();
+    }
+}
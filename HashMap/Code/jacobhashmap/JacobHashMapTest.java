@@ -0,0 +1,70 @@
+package jacobhashmap;
+
+public class JacobHashMapTest {
+    public static void main(String[] args) {
+        JacobHashMap<String> map = new JacobHashMap<>();
+
+        map.add("apple");
+        map.add("banana");
+        map.add("cherry");
+        map.add("date");
+        map.add("elderberry");
+        map.add("fig");
+        map.add("grape");
+        map.add("honeydew");
+
+        System.out.println("Contains 'banana'? " + map.contains("banana"));
+        System.out.println("Contains 'kiwi'?   " + map.contains("kiwi"));
+        System.out.println("Initial capacity:  " + map.capacity());
+
+        map.resize(32);
+        System.out.println("Capacity after manual resize: " + map.capacity());
+
+        JacobOpenHashMap<String> open = new JacobOpenHashMap<>();
+        for (int i = 0; i < 1000; i++) open.add("key" + i);
+        open.add("key7");
+        System.out.println("Open map size (1000 expected): " + open.size());
+        System.out.println("Open map contains 'key999'? " + open.contains("key999"));
+        System.out.println("Open map contains 'key1000'? " + open.contains("key1000"));
+        System.out.println("Open map capacity:  " + open.capacity());
+
+        JacobHashMap<String> inc = new JacobHashMap<>(StandardHashFunction.MURMUR3, true);
+        boolean allFound = true;
+        for (int i = 0; i < 1000; i++) {
+            inc.add("key" + i);
+            allFound &= inc.contains("key" + (i / 2));
+        }
+        inc.add("key7");
+        System.out.println("Incremental map size (1000 expected): " + inc.size());
+        System.out.println("Incremental map found every key mid-resize? " + allFound);
+
+        ConcurrentJacobHashMap<String> conc = new ConcurrentJacobHashMap<>();
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) conc.add("key" + i);   // every thread adds the same keys
+            });
+            writers[t].start();
+        }
+        for (Thread w : writers) {
+            try {
+                w.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        boolean concFound = true;
+        for (int i = 0; i < 10_000; i++) concFound &= conc.contains("key" + i);
+        System.out.println("Concurrent map size (10000 expected): " + conc.size());
+        System.out.println("Concurrent map found every key? " + concFound);
+
+        OffHeapJacobHashMap offHeap = new OffHeapJacobHashMap();
+        for (int i = 0; i < 1000; i++) offHeap.add("key" + i);
+        offHeap.add(new StringBuilder("key7"));
+        offHeap.add("\u03bb-wide");
+        System.out.println("Off-heap map size (1001 expected): " + offHeap.size());
+        System.out.println("Off-heap map contains 'key999'? " + offHeap.contains("key999"));
+        System.out.println("Off-heap map contains wide key? " + offHeap.contains("\u03bb-wide"));
+        System.out.println("Off-heap map contains 'key1000'? " + offHeap.contains("key1000"));
+    }
+}
@@ -0,0 +1,74 @@
+package jacobhashmap;
+
+/**
+ * Snapshot of how well a hash function spreads keys over a map.
+ *
+ * For the chained JacobHashMap a "chain" is a bucket's LinkedList; for the
+ * open-addressing map it is the probe sequence an element needs to be found
+ * (1 = sits in its home slot).  Probe counters cover every add/contains call
+ * since the map was created.
+ */
+public class JacobHashStats {
+
+    private static final int MAX_PRINTED = 12;   // histogram entries in toString
+
+    private final int[] histogram;    // histogram[len] = chains of that length
+    private final int maxChain;
+    private final long probes;        // elements/slots inspected
+    private final long operations;    // add + contains calls
+
+    private JacobHashStats(int[] histogram, long probes, long operations) {
+        int max = 0;
+        for (int len = 0; len < histogram.length; len++) if (histogram[len] > 0) max = len;
+        this.histogram = histogram;
+        this.maxChain = max;
+        this.probes = probes;
+        this.operations = operations;
+    }
+
+    /** Builds the histogram from a list of chain lengths. */
+    static JacobHashStats fromLengths(int[] lengths, int count, long probes, long operations) {
+        int max = 0;
+        for (int i = 0; i < count; i++) max = Math.max(max, lengths[i]);
+        int[] hist = new int[max + 1];
+        for (int i = 0; i < count; i++) hist[lengths[i]]++;
+        return new JacobHashStats(hist, probes, operations);
+    }
+
+    public int[] histogram()   { return histogram.clone(); }
+    public int maxChain()      { return maxChain; }
+    public long probes()       { return probes; }
+    public long operations()   { return operations; }
+
+    /** Average chain length, ignoring empty buckets. */
+    public double meanChain() {
+        long chains = 0, elements = 0;
+        for (int len = 1; len < histogram.length; len++) {
+            chains += histogram[len];
+            elements += (long) len * histogram[len];
+        }
+        return chains == 0 ? 0 : (double) elements / chains;
+    }
+
+    public double probesPerOperation() {
+        return operations == 0 ? 0 : (double) probes / operations;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("maxChain=%d meanChain=%.2f probes/op=%.2f histogram=[",
+                                maxChain, meanChain(), probesPerOperation()));
+        int shown = 0;
+        for (int len = 0; len < histogram.length; len++) {
+            if (histogram[len] == 0) continue;
+            if (shown++ == MAX_PRINTED) {
+                sb.append(", ...");
+                break;
+            }
+            if (sb.charAt(sb.length() - 1) != '[') sb.append(", ");
+            sb.append(len).append(':').append(histogram[len]);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,154 @@
+package jacobhashmap;
+
+import java.util.Objects;
+
+/**
+ * Open-addressing alternative to {@link JacobHashMap}.
+ *
+ * Elements live in two flat arrays (keys + cached hash codes) and are placed
+ * with Robin-Hood linear probing, so there are no per-element list nodes and
+ * an insert/lookup touches a short run of neighbouring slots.  The hash is a
+ * pluggable JacobHashFunction (MurmurHash3 by default) over the whole key.
+ *
+ * Same add / contains / size / capacity / resize API as JacobHashMap.
+ */
+public class JacobOpenHashMap<T extends CharSequence> {
+
+    private Object[] keys;          // slot -> element (null = empty)
+    private int[] hashes;           // slot -> cached hash of keys[slot]
+    private int mask;               // capacity - 1 (capacity is a power of two)
+    private int size;               // stored elements
+    private int threshold;          // resize once size exceeds this
+    private final JacobHashFunction hashFunction;
+
+    private long probes;            // slots inspected
+    private long operations;        // add + contains calls
+
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final double MAX_LOAD = 0.75;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /** Uses MurmurHash3, whose low bits are well mixed for the power-of-two mask. */
+    public JacobOpenHashMap() {
+        this(DEFAULT_CAPACITY, StandardHashFunction.MURMUR3);
+    }
+
+    public JacobOpenHashMap(JacobHashFunction hashFunction) {
+        this(DEFAULT_CAPACITY, hashFunction);
+    }
+
+    public JacobOpenHashMap(int initialCapacity, JacobHashFunction hashFunction) {
+        this.hashFunction = Objects.requireNonNull(hashFunction);
+        allocate(tableSizeFor(Math.max(initialCapacity, 2)));
+    }
+
+
+    public void add(T value) {
+        Objects.requireNonNull(value);
+        if (insert(value, hashFunction.hash(value), true) && ++size > threshold) {
+            resize(keys.length * 2);
+        }
+    }
+
+    public boolean contains(T value) {
+        if (value == null) return false;
+        int h = hashFunction.hash(value);
+        int slot = h & mask;
+        operations++;
+        for (int dist = 0; ; dist++, slot = (slot + 1) & mask) {
+            probes++;
+            Object k = keys[slot];
+            if (k == null || probeDistance(slot) < dist) return false;
+            if (hashes[slot] == h && equal(k, value)) return true;
+        }
+    }
+
+    public int size()      { return size; }
+    public int capacity()  { return keys.length; }
+    public JacobHashFunction hashFunction() { return hashFunction; }
+
+    /** Histogram of probe-sequence lengths (1 = element sits in its home slot). */
+    public JacobHashStats stats() {
+        int[] lengths = new int[size];
+        int n = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != null) lengths[n++] = probeDistance(slot) + 1;
+        }
+        return JacobHashStats.fromLengths(lengths, n, probes, operations);
+    }
+
+    /**
+     * Rehashes into a table of at least {@code newCap} slots.  The capacity is
+     * rounded up to a power of two and never drops below what the current
+     * size needs at MAX_LOAD.
+     */
+    public void resize(int newCap) {
+        int needed = (int) Math.ceil(size / MAX_LOAD) + 1;
+        int cap = tableSizeFor(Math.max(2, Math.max(newCap, needed)));
+        Object[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        allocate(cap);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) insert(oldKeys[i], oldHashes[i], false);
+        }
+    }
+
+    /**
+     * Robin-Hood insert: walk the probe sequence and, whenever the resident
+     * element sits closer to its home slot than we are to ours, swap and keep
+     * placing the displaced element.  The first swap point is also where a
+     * lookup would stop, so the duplicate check is complete by then.
+     *
+     * @return true if a new element was stored
+     */
+    private boolean insert(Object key, int h, boolean checkDuplicates) {
+        int slot = h & mask;
+        if (checkDuplicates) operations++;
+        for (int dist = 0; ; dist++, slot = (slot + 1) & mask) {
+            if (checkDuplicates) probes++;
+            Object k = keys[slot];
+            if (k == null) {
+                keys[slot] = key;
+                hashes[slot] = h;
+                return true;
+            }
+            if (checkDuplicates && hashes[slot] == h && equal(k, key)) return false;
+
+            int residentDist = probeDistance(slot);
+            if (residentDist < dist) {
+                keys[slot] = key;
+                int residentHash = hashes[slot];
+                hashes[slot] = h;
+                key = k;
+                h = residentHash;
+                dist = residentDist;
+                checkDuplicates = false;
+            }
+        }
+    }
+
+    private int probeDistance(int slot) {
+        return (slot - (hashes[slot] & mask)) & mask;
+    }
+
+    private void allocate(int cap) {
+        keys = new Object[cap];
+        hashes = new int[cap];
+        mask = cap - 1;
+        threshold = (int) (cap * MAX_LOAD);
+    }
+
+    private static boolean equal(Object stored, Object probe) {
+        if (stored == probe) return true;
+        CharSequence a = (CharSequence) stored, b = (CharSequence) probe;
+        int n = a.length();
+        if (n != b.length()) return false;
+        for (int i = 0; i < n; i++) if (a.charAt(i) != b.charAt(i)) return false;
+        return true;
+    }
+
+    private static int tableSizeFor(int cap) {
+        if (cap >= MAX_CAPACITY) return MAX_CAPACITY;
+        return Integer.highestOneBit(cap - 1) << 1;
+    }
+}
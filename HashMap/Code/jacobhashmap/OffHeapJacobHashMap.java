@@ -0,0 +1,278 @@
+package jacobhashmap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * String-key set whose table and key bytes live outside the Java heap.
+ *
+ * Two direct ByteBuffers hold everything:
+ *   table - one 8-byte slot per bucket: int hash, int key offset + 1 (0 = empty)
+ *   arena - key records appended back to back: int header, then the chars.
+ *           header = length << 1 | wide; narrow keys (all chars <= 0xFF) use
+ *           one byte per char, wide keys two.
+ * Lookups use linear probing over the cached hashes and compare chars straight
+ * out of the arena, so add/contains never build a String and the GC only ever
+ * sees two buffer objects regardless of how many keys are stored.  A 10-char
+ * ASCII key costs 14 arena bytes plus ~11 bytes of table at 0.75 load, against
+ * 80+ bytes for a String in a LinkedList node.
+ *
+ * Limits: a ByteBuffer is int-indexed, so the arena holds at most 2 GB of key
+ * data and the table at most 2^27 slots.
+ *
+ * Snapshots: writeSnapshot dumps a header plus the table and arena bytes
+ * unchanged (little-endian), and openSnapshot maps them back with
+ * FileChannel.map, giving a read-only map whose contains() runs directly on
+ * the file pages - nothing is re-inserted or re-hashed on load.
+ *
+ *   offset 0   int magic 'JHMS', int version, int hash function ordinal,
+ *              int capacity, int size, int arena bytes, 8 reserved bytes
+ *   offset 32  table (capacity * 8 bytes), then arena
+ */
+public class OffHeapJacobHashMap {
+
+    private static final int SLOT_BYTES = 8;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int DEFAULT_ARENA_BYTES = 1 << 12;
+    private static final double MAX_LOAD = 0.75;
+    private static final int MAX_CAPACITY = 1 << 27;
+
+    private static final int SNAPSHOT_MAGIC = 0x4A484D53;    // "JHMS"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private final JacobHashFunction hashFunction;
+    private ByteBuffer table;
+    private ByteBuffer arena;
+    private int arenaUsed;
+    private int mask;
+    private int size;
+    private int threshold;
+    private final boolean readOnly;     // backed by a mapped snapshot
+
+    public OffHeapJacobHashMap() {
+        this(DEFAULT_CAPACITY, StandardHashFunction.MURMUR3);
+    }
+
+    public OffHeapJacobHashMap(int initialCapacity, JacobHashFunction hashFunction) {
+        this.hashFunction = Objects.requireNonNull(hashFunction);
+        this.readOnly = false;
+        this.arena = allocate(DEFAULT_ARENA_BYTES);
+        allocateTable(tableSizeFor(Math.max(initialCapacity, 2)));
+    }
+
+    private OffHeapJacobHashMap(JacobHashFunction hashFunction, ByteBuffer table,
+                                ByteBuffer arena, int size) {
+        this.hashFunction = hashFunction;
+        this.readOnly = true;
+        this.table = table;
+        this.arena = arena;
+        this.arenaUsed = arena.capacity();
+        this.mask = table.capacity() / SLOT_BYTES - 1;
+        this.size = size;
+        this.threshold = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Maps a file written by {@link #writeSnapshot} as a read-only map.  The
+     * file stays mapped for as long as the returned map is reachable.
+     */
+    public static OffHeapJacobHashMap openSnapshot(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && ch.read(header) >= 0) { }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a JacobHashMap snapshot: " + file);
+            }
+            int version = header.getInt();
+            if (version != SNAPSHOT_VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            int hashOrdinal = header.getInt();
+            int capacity = header.getInt();
+            int size = header.getInt();
+            int arenaBytes = header.getInt();
+            StandardHashFunction[] functions = StandardHashFunction.values();
+            if (hashOrdinal < 0 || hashOrdinal >= functions.length
+                    || Integer.bitCount(capacity) != 1 || capacity > MAX_CAPACITY
+                    || ch.size() != HEADER_BYTES + (long) capacity * SLOT_BYTES + arenaBytes) {
+                throw new IOException("Corrupt JacobHashMap snapshot: " + file);
+            }
+            long tableBytes = (long) capacity * SLOT_BYTES;
+            ByteBuffer table = ch.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, tableBytes)
+                                 .order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer arena = ch.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + tableBytes, arenaBytes)
+                                 .order(ByteOrder.LITTLE_ENDIAN);
+            return new OffHeapJacobHashMap(functions[hashOrdinal], table, arena, size);
+        }
+    }
+
+    /**
+     * Writes the table and key arena as they are in memory.  Only the
+     * StandardHashFunction strategies can be recorded in the header.
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        if (!(hashFunction instanceof StandardHashFunction)) {
+            throw new IllegalStateException("Snapshots need a StandardHashFunction, not " + hashFunction);
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(SNAPSHOT_MAGIC)
+              .putInt(SNAPSHOT_VERSION)
+              .putInt(((StandardHashFunction) hashFunction).ordinal())
+              .putInt(capacity())
+              .putInt(size)
+              .putInt(arenaUsed);
+        header.clear();
+
+        ByteBuffer tableBytes = table.duplicate();
+        tableBytes.clear();
+        ByteBuffer arenaBytes = arena.duplicate();
+        arenaBytes.position(0).limit(arenaUsed);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (ByteBuffer b : new ByteBuffer[]{header, tableBytes, arenaBytes}) {
+                while (b.hasRemaining()) ch.write(b);
+            }
+        }
+    }
+
+    public void add(CharSequence value) {
+        Objects.requireNonNull(value);
+        checkWritable();
+        int h = hashFunction.hash(value);
+        int slot = h & mask;
+        while (true) {
+            int ref = table.getInt(slot * SLOT_BYTES + 4);
+            if (ref == 0) break;
+            if (table.getInt(slot * SLOT_BYTES) == h && keyEquals(ref - 1, value)) return;
+            slot = (slot + 1) & mask;
+        }
+        if (size >= mask) throw new IllegalStateException("Off-heap table is full");
+        int offset = appendKey(value);
+        table.putInt(slot * SLOT_BYTES, h);
+        table.putInt(slot * SLOT_BYTES + 4, offset + 1);
+        if (++size > threshold) resize(capacity() * 2);
+    }
+
+    public boolean contains(CharSequence value) {
+        if (value == null) return false;
+        int h = hashFunction.hash(value);
+        int slot = h & mask;
+        while (true) {
+            int ref = table.getInt(slot * SLOT_BYTES + 4);
+            if (ref == 0) return false;
+            if (table.getInt(slot * SLOT_BYTES) == h && keyEquals(ref - 1, value)) return true;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public int size()      { return size; }
+    public int capacity()  { return mask + 1; }
+    public boolean isReadOnly() { return readOnly; }
+
+    /** Off-heap bytes reserved for table + arena. */
+    public long offHeapBytes() {
+        return (long) table.capacity() + arena.capacity();
+    }
+
+    /**
+     * Rebuilds the table with at least {@code newCap} slots (rounded up to a
+     * power of two, never below what size needs).  Only the 8-byte slots move;
+     * the hashes are cached, so no key is read or rehashed.
+     */
+    public void resize(int newCap) {
+        checkWritable();
+        int needed = (int) Math.ceil(size / MAX_LOAD) + 1;
+        int cap = tableSizeFor(Math.max(2, Math.max(newCap, needed)));
+        ByteBuffer old = table;
+        int oldCap = mask + 1;
+        allocateTable(cap);
+        for (int i = 0; i < oldCap; i++) {
+            int ref = old.getInt(i * SLOT_BYTES + 4);
+            if (ref == 0) continue;
+            int h = old.getInt(i * SLOT_BYTES);
+            int slot = h & mask;
+            while (table.getInt(slot * SLOT_BYTES + 4) != 0) slot = (slot + 1) & mask;
+            table.putInt(slot * SLOT_BYTES, h);
+            table.putInt(slot * SLOT_BYTES + 4, ref);
+        }
+    }
+
+    private void checkWritable() {
+        if (readOnly) throw new UnsupportedOperationException("Snapshot maps are read-only");
+    }
+
+    private boolean keyEquals(int offset, CharSequence value) {
+        int header = arena.getInt(offset);
+        int len = header >>> 1;
+        if (len != value.length()) return false;
+        int pos = offset + 4;
+        if ((header & 1) == 0) {
+            for (int i = 0; i < len; i++) {
+                if ((arena.get(pos + i) & 0xff) != value.charAt(i)) return false;
+            }
+        } else {
+            for (int i = 0; i < len; i++) {
+                if (arena.getChar(pos + 2 * i) != value.charAt(i)) return false;
+            }
+        }
+        return true;
+    }
+
+    /** Appends a key record and returns its offset. */
+    private int appendKey(CharSequence value) {
+        int len = value.length();
+        boolean wide = false;
+        for (int i = 0; i < len && !wide; i++) wide = value.charAt(i) > 0xff;
+        long bytes = 4L + (wide ? 2L * len : len);
+        ensureArena(bytes);
+
+        int offset = arenaUsed;
+        arena.putInt(offset, len << 1 | (wide ? 1 : 0));
+        int pos = offset + 4;
+        if (wide) {
+            for (int i = 0; i < len; i++) arena.putChar(pos + 2 * i, value.charAt(i));
+        } else {
+            for (int i = 0; i < len; i++) arena.put(pos + i, (byte) value.charAt(i));
+        }
+        arenaUsed += (int) bytes;
+        return offset;
+    }
+
+    private void ensureArena(long extra) {
+        long needed = arenaUsed + extra;
+        if (needed <= arena.capacity()) return;
+        if (needed > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Off-heap key arena is full (2 GB)");
+        }
+        long cap = Math.max(needed, Math.min((long) arena.capacity() * 2, Integer.MAX_VALUE - 8));
+        ByteBuffer grown = allocate((int) cap);
+        ByteBuffer src = arena.duplicate();
+        src.position(0).limit(arenaUsed);
+        grown.put(src);
+        arena = grown;
+    }
+
+    private void allocateTable(int cap) {
+        if (cap > MAX_CAPACITY) throw new IllegalStateException("Off-heap table is full");
+        table = allocate(cap * SLOT_BYTES);   // direct buffers start zeroed = all empty
+        mask = cap - 1;
+        threshold = (int) (cap * MAX_LOAD);
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        // Little-endian so a snapshot is the buffer contents verbatim.
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int tableSizeFor(int cap) {
+        if (cap >= MAX_CAPACITY) return MAX_CAPACITY;
+        return Integer.highestOneBit(cap - 1) << 1;
+    }
+}
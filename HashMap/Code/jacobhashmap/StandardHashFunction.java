@@ -0,0 +1,131 @@
+package jacobhashmap;
+
+/**
+ * Built-in hash strategies, from the original length-based hash to
+ * well-mixed functions.  All of them work on UTF-16 chars without converting
+ * the key to a String.
+ */
+public enum StandardHashFunction implements JacobHashFunction {
+
+    /** Original JacobHashMap.dumbHash: just the length. */
+    LENGTH {
+        @Override
+        public int hash(CharSequence s) {
+            return s.length();
+        }
+    },
+
+    /** Base-31 polynomial, same values as String.hashCode(). */
+    POLYNOMIAL {
+        @Override
+        public int hash(CharSequence s) {
+            int h = 0;
+            for (int i = 0, n = s.length(); i < n; i++) h = 31 * h + s.charAt(i);
+            return h;
+        }
+    },
+
+    /** 32-bit FNV-1a over the low and high byte of every char. */
+    FNV1A {
+        @Override
+        public int hash(CharSequence s) {
+            int h = 0x811c9dc5;
+            for (int i = 0, n = s.length(); i < n; i++) {
+                char c = s.charAt(i);
+                h = (h ^ (c & 0xff)) * 0x01000193;
+                h = (h ^ (c >>> 8)) * 0x01000193;
+            }
+            return h;
+        }
+    },
+
+    /** MurmurHash3 x86_32, two chars per 32-bit block. */
+    MURMUR3 {
+        @Override
+        public int hash(CharSequence s) {
+            int n = s.length();
+            int h = 0;
+            int i = 0;
+            for (; i + 1 < n; i += 2) {
+                int k = s.charAt(i) | (s.charAt(i + 1) << 16);
+                k *= 0xcc9e2d51;
+                k = Integer.rotateLeft(k, 15);
+                k *= 0x1b873593;
+                h ^= k;
+                h = Integer.rotateLeft(h, 13);
+                h = h * 5 + 0xe6546b64;
+            }
+            if (i < n) {
+                int k = s.charAt(i);
+                k *= 0xcc9e2d51;
+                k = Integer.rotateLeft(k, 15);
+                k *= 0x1b873593;
+                h ^= k;
+            }
+            return fmix32(h ^ (n * 2));
+        }
+    },
+
+    /** xxHash32 layout: four lanes of two chars each, then a tail pass. */
+    XXHASH {
+        private static final int P1 = 0x9E3779B1;
+        private static final int P2 = 0x85EBCA77;
+        private static final int P3 = 0xC2B2AE3D;
+        private static final int P4 = 0x27D4EB2F;
+        private static final int P5 = 0x165667B1;
+
+        @Override
+        public int hash(CharSequence s) {
+            int n = s.length();
+            int i = 0;
+            int h;
+            if (n >= 8) {
+                int v1 = P1 + P2, v2 = P2, v3 = 0, v4 = -P1;
+                for (; i + 8 <= n; i += 8) {
+                    v1 = round(v1, pair(s, i));
+                    v2 = round(v2, pair(s, i + 2));
+                    v3 = round(v3, pair(s, i + 4));
+                    v4 = round(v4, pair(s, i + 6));
+                }
+                h = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7)
+                  + Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18);
+            } else {
+                h = P5;
+            }
+            h += n * 2;
+            for (; i + 2 <= n; i += 2) {
+                h += pair(s, i) * P3;
+                h = Integer.rotateLeft(h, 17) * P4;
+            }
+            if (i < n) {
+                h += s.charAt(i) * P5;
+                h = Integer.rotateLeft(h, 11) * P1;
+            }
+            h ^= h >>> 15;
+            h *= P2;
+            h ^= h >>> 13;
+            h *= P3;
+            h ^= h >>> 16;
+            return h;
+        }
+
+        private int pair(CharSequence s, int i) {
+            return s.charAt(i) | (s.charAt(i + 1) << 16);
+        }
+
+        private int round(int acc, int input) {
+            acc += input * P2;
+            acc = Integer.rotateLeft(acc, 13);
+            return acc * P1;
+        }
+    };
+
+    static int fmix32(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
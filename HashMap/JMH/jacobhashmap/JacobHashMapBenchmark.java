@@ -0,0 +1,206 @@
+/*
+   JacobHashMapBenchmark.java
+   • JMH suite for the JacobHashMap family vs java.util.HashSet<String>
+   • add, contains hit/miss, resize and a mixed load workload
+   • Keys are generated once per trial, so key creation is never measured
+
+   JMH only accepts benchmarks in a named package, so this class lives in
+   jacobhashmap beside the classes under test (HashMap/Code/jacobhashmap).
+   Build / run from HashMap/JMH, jars from Maven Central (org.openjdk.jmh 1.37,
+   jopt-simple 5.0.4, commons-math3 3.6.1):
+       CP=jmh-core-1.37.jar:jopt-simple-5.0.4.jar:commons-math3-3.6.1.jar
+       javac -cp $CP -processorpath $CP:jmh-generator-annprocess-1.37.jar \
+             -d out ../Code/jacobhashmap/*.java jacobhashmap/JacobHashMapBenchmark.java
+       java -cp out:$CP jacobhashmap.JacobHashMapBenchmark [JMH options]
+   main() attaches the GC profiler (same as "-prof gc" on the JMH CLI).
+   Scores are microseconds per pass over all `size` keys (per call for resize).
+   Narrow the run with JMH's usual flags, e.g. -p impl=open -p size=1000000.
+*/
+
+package jacobhashmap;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/* JMH */
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class JacobHashMapBenchmark {
+
+    /* Common face for every implementation under test. */
+    interface KeySet {
+        void add(String s);
+        boolean contains(String s);
+        void resize(int newCap);
+        int capacity();
+    }
+
+    static KeySet create(String impl) {
+        switch (impl) {
+            case "hashset": {
+                // HashSet has no resize(); rebuilding it is the closest equivalent.
+                return new KeySet() {
+                    HashSet<String> set = new HashSet<>();
+                    int cap = 16;
+                    public void add(String s)         { set.add(s); }
+                    public boolean contains(String s) { return set.contains(s); }
+                    public void resize(int newCap)    { set = new HashSet<>(set); cap = newCap; }
+                    public int capacity()             { return cap; }
+                };
+            }
+            case "chained":
+                return wrap(new JacobHashMap<>(StandardHashFunction.MURMUR3));
+            case "chained-incremental":
+                return wrap(new JacobHashMap<>(StandardHashFunction.MURMUR3, true));
+            case "chained-legacy":      // original length hash: O(n) inserts, keep sizes small
+                return wrap(new JacobHashMap<>());
+            case "open": {
+                JacobOpenHashMap<String> m = new JacobOpenHashMap<>();
+                return new KeySet() {
+                    public void add(String s)         { m.add(s); }
+                    public boolean contains(String s) { return m.contains(s); }
+                    public void resize(int newCap)    { m.resize(newCap); }
+                    public int capacity()             { return m.capacity(); }
+                };
+            }
+            case "concurrent": {
+                ConcurrentJacobHashMap<String> m = new ConcurrentJacobHashMap<>();
+                return new KeySet() {
+                    public void add(String s)         { m.add(s); }
+                    public boolean contains(String s) { return m.contains(s); }
+                    public void resize(int newCap)    { m.resize(newCap); }
+                    public int capacity()             { return m.capacity(); }
+                };
+            }
+            default:
+                throw new IllegalArgumentException("Unknown impl: " + impl);
+        }
+    }
+
+    private static KeySet wrap(JacobHashMap<String> m) {
+        return new KeySet() {
+            public void add(String s)         { m.add(s); }
+            public boolean contains(String s) { return m.contains(s); }
+            public void resize(int newCap)    { m.resize(newCap); }
+            public int capacity()             { return m.capacity(); }
+        };
+    }
+
+    /* Same key shape as HashMapExperiment: 5-15 lowercase letters. */
+    static String randomString(Random r, int min, int max) {
+        int len = r.nextInt(max - min + 1) + min;
+        StringBuilder sb = new StringBuilder(len);
+        for (int i = 0; i < len; i++) sb.append((char) ('a' + r.nextInt(26)));
+        return sb.toString();
+    }
+
+    @Param({"10000", "20000", "40000", "80000", "160000", "1000000"})
+    int size;
+
+    @Param({"hashset", "chained", "open", "concurrent"})
+    String impl;
+
+    String[] keys;      // inserted keys
+    String[] misses;    // never inserted (one upper-case letter, so no overlap)
+    KeySet filled;      // pre-loaded with keys, for the read benchmarks
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random rnd = new Random(42);
+        keys = new String[size];
+        misses = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = randomString(rnd, 5, 15);
+            misses[i] = 'A' + randomString(rnd, 4, 14);
+        }
+        filled = create(impl);
+        for (String k : keys) filled.add(k);
+    }
+
+    @Benchmark
+    public KeySet add() {
+        KeySet set = create(impl);
+        for (String k : keys) set.add(k);
+        return set;
+    }
+
+    @Benchmark
+    public void containsHit(Blackhole bh) {
+        for (String k : keys) bh.consume(filled.contains(k));
+    }
+
+    @Benchmark
+    public void containsMiss(Blackhole bh) {
+        for (String k : misses) bh.consume(filled.contains(k));
+    }
+
+    /*
+       A freshly loaded map for every resize() call, so each call really
+       moves all `size` keys (the concurrent map only grows, so resizing one
+       map back and forth would be a no-op after the first call).  Filling
+       happens in setup and is not measured.
+    */
+    @State(Scope.Thread)
+    public static class Loaded {
+        KeySet set;
+
+        @Setup(Level.Invocation)
+        public void fill(JacobHashMapBenchmark b) {
+            set = create(b.impl);
+            for (String k : b.keys) set.add(k);
+        }
+    }
+
+    /* Doubles the capacity of a just-loaded map once. */
+    @Benchmark
+    public int resize(Loaded loaded) {
+        loaded.set.resize(loaded.set.capacity() * 2);
+        return loaded.set.capacity();
+    }
+
+    /* Loading workload: each insert is followed by a hit and a miss lookup. */
+    @Benchmark
+    public void mixed(Blackhole bh) {
+        KeySet set = create(impl);
+        for (int i = 0; i < keys.length; i++) {
+            set.add(keys[i]);
+            bh.consume(set.contains(keys[i >> 1]));
+            bh.consume(set.contains(misses[i]));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options opt = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(JacobHashMapBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,408 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.DoubleConsumer;
+import java.util.stream.DoubleStream;
+
+/**
+ * One-pass check of Chebyshev's bound against data: how much of a sample
+ * really lies within kσ of its mean, next to the guaranteed 1 - 1/k².
+ *
+ * Mean and variance are kept with Welford's update (bulk input is folded in
+ * a block at a time with Chan's pairwise formula). Because μ and σ are only
+ * known at the end, the values themselves go into a histogram instead:
+ * each bucket holds the doubles sharing their sign, exponent and top
+ * precisionBits mantissa bits, so bucket widths are relative (2^-10 of the
+ * value by default) and the memory is one small page per binary order of
+ * magnitude actually seen. After the pass, any k can be asked for; buckets
+ * straddling μ ± kσ are what make the answer a bracket [lower, upper]
+ * rather than a single number, with a linear estimate in between.
+ *
+ * Analyzers with the same center and precision merge exactly (counts add,
+ * moments combine), so partitions can be analyzed in parallel, e.g. by
+ * analyze(double[], int) or of(DoubleStream). Every factory takes a center
+ * and precision; analyze() and ofCsvColumn() otherwise pick one center from
+ * the data (centerOf) before splitting it. Non-finite values are counted as
+ * skipped and otherwise ignored.
+ */
+public class ChebyshevAnalyzer implements DoubleConsumer {
+
+    /** Bucket resolution used by the no-argument constructor: 2^-10 relative. */
+    public static final int DEFAULT_PRECISION_BITS = 10;
+    /** analyze() gives each task this many values. */
+    public static final int CHUNK = 1 << 16;
+    /** report() shows no point estimate when the bracket is wider than this. */
+    public static final double BRACKET_TOLERANCE = 1e-3;
+    /** Values sampled by centerOf(). */
+    private static final int CENTER_SAMPLE = 1024;
+    private static final int BLOCK = 1024;
+
+    private final double center;
+    private final int precisionBits;
+    private final int shift;
+    private final int mask;
+    /** One page per sign and exponent (4096 of them), allocated on first use. */
+    private final long[][] pages = new long[1 << 12][];
+
+    private long n, skipped;
+    private double mean, m2;
+    private double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+
+    public ChebyshevAnalyzer() {
+        this(0, DEFAULT_PRECISION_BITS);
+    }
+
+    /**
+     * @param center        subtracted before bucketing; set it near the data's
+     *                      mean when the spread is tiny next to the values
+     *                      (e.g. 1e6 ± 1), since bucket widths are relative
+     * @param precisionBits mantissa bits per bucket, 0..20
+     */
+    public ChebyshevAnalyzer(double center, int precisionBits) {
+        if (!Double.isFinite(center)) throw new IllegalArgumentException("center must be finite");
+        if (precisionBits < 0 || precisionBits > 20) {
+            throw new IllegalArgumentException("precisionBits must be in 0..20, got " + precisionBits);
+        }
+        this.center = center;
+        this.precisionBits = precisionBits;
+        this.shift = 52 - precisionBits;
+        this.mask = (1 << precisionBits) - 1;
+    }
+
+    /** Adds one value (Welford's update). */
+    @Override
+    public void accept(double v) {
+        if (!Double.isFinite(v)) {
+            skipped++;
+            return;
+        }
+        n++;
+        double d = v - mean;
+        mean += d / n;
+        m2 += d * (v - mean);
+        if (v < min) min = v;
+        if (v > max) max = v;
+        bin(v);
+    }
+
+    /**
+     * Adds values[from, to). Each block of BLOCK values gets its exact mean
+     * and squared deviations in two cheap passes, then is combined with the
+     * running totals, avoiding Welford's divide per value.
+     */
+    public void accept(double[] values, int from, int to) {
+        for (int start = from; start < to; start += BLOCK) {
+            int end = Math.min(to, start + BLOCK);
+            long count = 0;
+            double sum = 0;
+            for (int i = start; i < end; i++) {
+                double v = values[i];
+                if (!Double.isFinite(v)) {
+                    skipped++;
+                    continue;
+                }
+                count++;
+                sum += v;
+                if (v < min) min = v;
+                if (v > max) max = v;
+                bin(v);
+            }
+            if (count == 0) continue;
+            double blockMean = sum / count, blockM2 = 0;
+            for (int i = start; i < end; i++) {
+                double d = values[i] - blockMean;
+                if (Double.isFinite(d)) blockM2 += d * d;
+            }
+            combine(count, blockMean, blockM2);
+        }
+    }
+
+    /** Folds other into this one; both must share center and precision. */
+    public ChebyshevAnalyzer merge(ChebyshevAnalyzer other) {
+        if (other.center != center || other.precisionBits != precisionBits) {
+            throw new IllegalArgumentException("cannot merge analyzers with different center or precision");
+        }
+        combine(other.n, other.mean, other.m2);
+        skipped += other.skipped;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        for (int p = 0; p < pages.length; p++) {
+            long[] theirs = other.pages[p];
+            if (theirs == null) continue;
+            long[] ours = pages[p];
+            if (ours == null) {
+                pages[p] = theirs.clone();
+            } else {
+                for (int j = 0; j < ours.length; j++) ours[j] += theirs[j];
+            }
+        }
+        return this;
+    }
+
+    // Chan et al.: pooled mean and sum of squared deviations of two parts.
+    private void combine(long count, double otherMean, double otherM2) {
+        if (count == 0) return;
+        if (n == 0) {
+            n = count;
+            mean = otherMean;
+            m2 = otherM2;
+            return;
+        }
+        long total = n + count;
+        double delta = otherMean - mean;
+        mean += delta * count / total;
+        m2 += otherM2 + delta * delta * ((double) n * count / total);
+        n = total;
+    }
+
+    // Sortable bits: flipping the magnitude bits of negatives makes signed
+    // long order match double order, so a bucket is a run of adjacent keys.
+    private void bin(double v) {
+        long bits = Double.doubleToRawLongBits(v - center);
+        long key = bits ^ ((bits >> 63) & Long.MAX_VALUE);
+        int page = (int) (key >> 52) + 2048;
+        long[] p = pages[page];
+        if (p == null) p = pages[page] = new long[mask + 1];
+        p[(int) (key >> shift) & mask]++;
+    }
+
+    private static double fromKey(long key) {
+        return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+    }
+
+    public double center() { return center; }
+
+    public int precisionBits() { return precisionBits; }
+
+    public long count() { return n; }
+
+    /** Non-finite values seen and left out of every statistic. */
+    public long skipped() { return skipped; }
+
+    public double mean() { return n == 0 ? Double.NaN : mean; }
+
+    /** Population variance (divides by n), the σ² Chebyshev's bound is stated for. */
+    public double variance() { return n == 0 ? Double.NaN : m2 / n; }
+
+    public double stdDev() { return Math.sqrt(variance()); }
+
+    public double min() { return n == 0 ? Double.NaN : min; }
+
+    public double max() { return n == 0 ? Double.NaN : max; }
+
+    /**
+     * Observed fraction of values with |x - μ| < kσ, as {lower, estimate, upper}.
+     * lower counts only buckets wholly inside the interval, upper also every
+     * bucket it cuts through, and estimate takes the cut buckets' share by
+     * the length inside, as if their values were spread evenly.
+     */
+    public double[] withinFraction(double k) {
+        if (n == 0) return new double[] { Double.NaN, Double.NaN, Double.NaN };
+        double sigma = stdDev();
+        double a = mean - k * sigma - center, b = mean + k * sigma - center;
+        long inside = 0, cut = 0;
+        double partial = 0;
+        for (int p = 0; p < pages.length; p++) {
+            long[] page = pages[p];
+            if (page == null) continue;
+            long pageKey = (long) (p - 2048) << 52;
+            for (int j = 0; j < page.length; j++) {
+                long c = page[j];
+                if (c == 0) continue;
+                long key = pageKey | ((long) j << shift);
+                double lo = fromKey(key), hi = fromKey(key + (1L << shift) - 1);
+                if (Double.isNaN(lo)) lo = Double.NEGATIVE_INFINITY;
+                if (Double.isNaN(hi)) hi = Double.POSITIVE_INFINITY;
+                if (lo > a && hi < b) {
+                    inside += c;
+                } else if (hi > a && lo < b) {
+                    cut += c;
+                    double share = (Math.min(hi, b) - Math.max(lo, a)) / (hi - lo);
+                    partial += c * (Double.isFinite(share) ? Math.max(0, Math.min(1, share)) : 0.5);
+                }
+            }
+        }
+        return new double[] { (double) inside / n, (inside + partial) / n, (double) (inside + cut) / n };
+    }
+
+    /**
+     * Summary plus one row per k: Chebyshev's guarantee (clamped at 0), the
+     * observed fraction within kσ and its bracket, the normal distribution's
+     * P(|Z| < k) for comparison, and the slack observed - bound. Where the
+     * bracket is wider than BRACKET_TOLERANCE, observed and slack show "-".
+     */
+    public String report(double... ks) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "n=%d mean=%.6g sd=%.6g min=%.6g max=%.6g skipped=%d center=%.6g%n",
+                n, mean(), stdDev(), min(), max(), skipped, center));
+        sb.append(String.format(Locale.ROOT, "%6s %10s %10s %23s %10s %10s%n",
+                "k", "chebyshev", "observed", "bracket", "normal", "slack"));
+        boolean wide = false;
+        for (double k : ks) {
+            double bound = Math.max(0, Chebyshev.bound(k));
+            double[] w = withinFraction(k);
+            double normal = k > 0 ? SpecialFunctions.regularizedGammaP(0.5, k * k / 2) : 0;
+            boolean tight = w[2] - w[0] <= BRACKET_TOLERANCE;
+            wide |= !tight;
+            sb.append(String.format(Locale.ROOT, "%6.2f %10.6f %10s  [%.6f, %.6f] %10.6f %10s%n",
+                    k, bound, tight ? String.format(Locale.ROOT, "%.6f", w[1]) : "-", w[0], w[2], normal,
+                    tight ? String.format(Locale.ROOT, "%.6f", w[1] - bound) : "-"));
+        }
+        if (wide) {
+            sb.append(String.format(Locale.ROOT,
+                    "Brackets wider than %s: set the center near the mean or raise precisionBits.%n", BRACKET_TOLERANCE));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A bucketing center for data[from, to): the mean of up to 1024 evenly
+     * spaced finite values, 0 if there are none. Any center gives correct
+     * brackets; one near the mean keeps them narrow for offset data.
+     */
+    public static double centerOf(double[] data, int from, int to) {
+        long step = Math.max(1, (to - (long) from) / CENTER_SAMPLE);
+        double sum = 0;
+        int count = 0;
+        for (long i = from; i < to; i += step) {
+            double v = data[(int) i];
+            if (Double.isFinite(v)) {
+                sum += v;
+                count++;
+            }
+        }
+        double center = count == 0 ? 0 : sum / count;
+        return Double.isFinite(center) ? center : 0;
+    }
+
+    /**
+     * Analyzes data[0, count) on the common ForkJoinPool, CHUNK values per
+     * task, all bucketed around one center taken by centerOf() before the
+     * data are split.
+     */
+    public static ChebyshevAnalyzer analyze(double[] data, int count) {
+        if (count > data.length) throw new IllegalArgumentException("count exceeds array length");
+        return analyze(data, count, centerOf(data, 0, count), DEFAULT_PRECISION_BITS);
+    }
+
+    public static ChebyshevAnalyzer analyze(double[] data, int count, double center, int precisionBits) {
+        if (count > data.length) throw new IllegalArgumentException("count exceeds array length");
+        new ChebyshevAnalyzer(center, precisionBits);   // validates before any task starts
+        return ForkJoinPool.commonPool().invoke(new ChunkTask(data, 0, count, center, precisionBits));
+    }
+
+    /**
+     * Drains a (possibly parallel) stream; each partition fills its own
+     * analyzer, then they merge. A stream cannot be looked at in advance,
+     * so this one buckets around 0; pass a center for offset data.
+     */
+    public static ChebyshevAnalyzer of(DoubleStream values) {
+        return of(values, 0, DEFAULT_PRECISION_BITS);
+    }
+
+    public static ChebyshevAnalyzer of(DoubleStream values, double center, int precisionBits) {
+        new ChebyshevAnalyzer(center, precisionBits);
+        return values.collect(() -> new ChebyshevAnalyzer(center, precisionBits),
+                ChebyshevAnalyzer::accept, ChebyshevAnalyzer::merge);
+    }
+
+    private static final class ChunkTask extends RecursiveTask<ChebyshevAnalyzer> {
+        private final double[] data;
+        private final int from, to;
+        private final double center;
+        private final int precisionBits;
+
+        ChunkTask(double[] data, int from, int to, double center, int precisionBits) {
+            this.data = data;
+            this.from = from;
+            this.to = to;
+            this.center = center;
+            this.precisionBits = precisionBits;
+        }
+
+        @Override
+        protected ChebyshevAnalyzer compute() {
+            if (to - from <= CHUNK) {
+                ChebyshevAnalyzer a = new ChebyshevAnalyzer(center, precisionBits);
+                a.accept(data, from, to);
+                return a;
+            }
+            int mid = from + (to - from) / 2;
+            ChunkTask left = new ChunkTask(data, from, mid, center, precisionBits);
+            left.fork();
+            ChebyshevAnalyzer right = new ChunkTask(data, mid, to, center, precisionBits).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Streams one column of a CSV file through an analyzer, buffering values
+     * so the file is never held in memory. Lines whose column does not parse
+     * (such as a header) are ignored. The center comes from centerOf() over
+     * the first buffer of values.
+     */
+    public static ChebyshevAnalyzer ofCsvColumn(String file, int column) throws IOException {
+        return ofCsvColumn(file, column, Double.NaN, DEFAULT_PRECISION_BITS);
+    }
+
+    /** As ofCsvColumn(file, column), with a given center; NaN takes it from the first buffer. */
+    public static ChebyshevAnalyzer ofCsvColumn(String file, int column, double center, int precisionBits)
+            throws IOException {
+        ChebyshevAnalyzer a = Double.isNaN(center) ? null : new ChebyshevAnalyzer(center, precisionBits);
+        double[] buffer = new double[CHUNK];
+        int filled = 0;
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(file))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (column >= fields.length) continue;
+                try {
+                    buffer[filled++] = Double.parseDouble(fields[column].trim());
+                } catch (NumberFormatException e) {
+                    filled--;
+                    continue;
+                }
+                if (filled == buffer.length) {
+                    if (a == null) a = new ChebyshevAnalyzer(centerOf(buffer, 0, filled), precisionBits);
+                    a.accept(buffer, 0, filled);
+                    filled = 0;
+                }
+            }
+        }
+        if (a == null) a = new ChebyshevAnalyzer(centerOf(buffer, 0, filled), precisionBits);
+        a.accept(buffer, 0, filled);
+        return a;
+    }
+
+    // Usage: ChebyshevAnalyzer [file.csv] [column] [k list] [center] [precisionBits]
+    //   center         bucketing center; "auto" (default) takes it from the data
+    //   precisionBits  mantissa bits per bucket, 0..20 (default 10)
+    // e.g. ChebyshevAnalyzer "PSS/javaMain/Csv and Excel/plot_data.csv" 1 1.5,2,3
+    // With no file (or "-"), analyzes 10 million seeded Gamma(2, 1) variates.
+    public static void main(String[] args) throws IOException {
+        double[] ks = { 1.5, 2, 3, 4 };
+        if (args.length >= 3) {
+            String[] parts = args[2].split(",");
+            ks = new double[parts.length];
+            for (int i = 0; i < parts.length; i++) ks[i] = Double.parseDouble(parts[i].trim());
+        }
+        double center = args.length >= 4 && !args[3].equalsIgnoreCase("auto")
+                ? Double.parseDouble(args[3]) : Double.NaN;
+        int precisionBits = args.length >= 5 ? Integer.parseInt(args[4]) : DEFAULT_PRECISION_BITS;
+        ChebyshevAnalyzer a;
+        if (args.length >= 1 && !args[0].equals("-")) {
+            int column = args.length >= 2 ? Integer.parseInt(args[1]) : 1;
+            a = ofCsvColumn(args[0], column, center, precisionBits);
+            System.out.println(args[0] + ", column " + column + ":");
+        } else {
+            double[] data = GammaDistribution.sample(2, 1, 10_000_000, 1);
+            a = analyze(data, data.length, Double.isNaN(center) ? centerOf(data, 0, data.length) : center, precisionBits);
+            System.out.println("10,000,000 Gamma(2, 1) variates:");
+        }
+        System.out.print(a.report(ks));
+    }
+}
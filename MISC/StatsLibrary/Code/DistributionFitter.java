@@ -0,0 +1,626 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Fits the StatsLibrary distributions to samples and tests the fit.
+ *
+ * A fit takes two parallel passes over the data. The first collects
+ * sufficient statistics in chunks (count, mean and squared deviations,
+ * min/max, Σ ln x, Σ ln x!) and merges them; every estimator works from
+ * those alone:
+ *   • uniform  a = min, b = max (maximum likelihood)
+ *   • poisson  λ = mean (maximum likelihood; whole numbers >= 0 only)
+ *   • gamma    maximum likelihood, Newton's method on the shape
+ *              ln k - ψ(k) = ln(mean) - mean(ln x) from Minka's starting
+ *              value; method of moments when a zero makes ln x undefined
+ * The second pass walks a sorted copy, again in chunks, for the
+ * Kolmogorov-Smirnov statistic and the chi-square count over equiprobable
+ * bins. Since F is monotone, it is evaluated at the ends of each block of
+ * sorted values and inside only the few blocks that could hold the KS
+ * maximum or cross a bin edge; the results equal a full evaluation.
+ * The Poisson tests walk the pmf over λ ± a few √λ only and take values
+ * outside that from the runs of the sorted copy, never tabulating 0..max.
+ *
+ * The p-values treat the parameters as known, so they are conservative
+ * for fitted parameters (Lilliefors) and for discrete data (KS).
+ *
+ * fitSeries() fits many series at once, one task per series; long series
+ * are also split into chunks, so thousands of short series or a few huge
+ * ones both keep the pool busy.
+ */
+public class DistributionFitter {
+
+    /** Values per chunk task in each pass. */
+    public static final int CHUNK = 1 << 16;
+    /** Sorted values per block in the test pass; see TestTask. */
+    private static final int BLOCK = 64;
+    private static final int MAX_BINS = 1000;
+    private static final double MIN_EXPECTED = 5;
+    /** Poisson fits walk λ ± POISSON_SPREAD (√λ + 1); see fitPoisson. */
+    private static final double POISSON_SPREAD = 10;
+
+    private DistributionFitter() { }
+
+    /** One fitted distribution with its goodness-of-fit results. */
+    public static final class Fit {
+        public final String distribution;
+        /** "MLE" or "moments" */
+        public final String method;
+        public final String[] parameterNames;
+        public final double[] parameters;
+        public final long n;
+        /** ln L at the fitted parameters (NaN where undefined); a pmf for poisson, a density otherwise. */
+        public final double logLikelihood;
+        public final double ksStatistic, ksPValue;
+        public final double chiSquare, chiSquarePValue;
+        public final int degreesOfFreedom;
+
+        Fit(String distribution, String method, String[] parameterNames, double[] parameters, long n,
+            double logLikelihood, double ksStatistic, double chiSquare, int degreesOfFreedom) {
+            this.distribution = distribution;
+            this.method = method;
+            this.parameterNames = parameterNames;
+            this.parameters = parameters;
+            this.n = n;
+            this.logLikelihood = logLikelihood;
+            this.ksStatistic = ksStatistic;
+            this.ksPValue = kolmogorovPValue(ksStatistic, n);
+            this.chiSquare = chiSquare;
+            // Too few bins for the estimated parameters: no chi-square test.
+            this.degreesOfFreedom = Math.max(0, degreesOfFreedom);
+            this.chiSquarePValue = degreesOfFreedom > 0
+                    ? SpecialFunctions.regularizedGammaQ(degreesOfFreedom / 2.0, chiSquare / 2) : Double.NaN;
+        }
+
+        /** Akaike information criterion, 2p - 2 ln L; compare only fits of the same kind (pmf or density). */
+        public double aic() {
+            return 2 * parameters.length - 2 * logLikelihood;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format(Locale.ROOT, "%-8s %-7s", distribution, method));
+            for (int i = 0; i < parameters.length; i++) {
+                sb.append(String.format(Locale.ROOT, " %s=%.6g", parameterNames[i], parameters[i]));
+            }
+            sb.append(String.format(Locale.ROOT, "  lnL=%.6g  KS D=%.5f p=%.4f  chi2=%.2f df=%d p=%.4f",
+                    logLikelihood, ksStatistic, ksPValue, chiSquare, degreesOfFreedom, chiSquarePValue));
+            return sb.toString();
+        }
+    }
+
+    // ---- pass 1: sufficient statistics ----
+
+    /** Mergeable summary of a chunk of data. */
+    private static final class Stats {
+        long n, zeros;
+        double mean, m2, sumLog, sumLogFactorial;
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        boolean counts = true;    // every value a whole number in int range, >= 0
+
+        void add(double[] data, int from, int to) {
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                double v = data[i];
+                if (!Double.isFinite(v)) throw new IllegalArgumentException("non-finite value at index " + i);
+                sum += v;
+                if (v < min) min = v;
+                if (v > max) max = v;
+                if (v > 0) {
+                    sumLog += Math.log(v);
+                } else if (v == 0) {
+                    zeros++;
+                }
+                if (counts) {
+                    if (v >= 0 && v <= Integer.MAX_VALUE && v == Math.rint(v)) {
+                        sumLogFactorial += LogFactorials.logFactorial((int) v);
+                    } else {
+                        counts = false;
+                    }
+                }
+            }
+            long count = to - from;
+            if (count == 0) return;
+            double chunkMean = sum / count, chunkM2 = 0;
+            for (int i = from; i < to; i++) {
+                double d = data[i] - chunkMean;
+                chunkM2 += d * d;
+            }
+            combine(count, chunkMean, chunkM2);
+        }
+
+        // Chan et al.: pooled mean and sum of squared deviations.
+        private void combine(long count, double otherMean, double otherM2) {
+            if (n == 0) {
+                n = count;
+                mean = otherMean;
+                m2 = otherM2;
+                return;
+            }
+            long total = n + count;
+            double delta = otherMean - mean;
+            mean += delta * count / total;
+            m2 += otherM2 + delta * delta * ((double) n * count / total);
+            n = total;
+        }
+
+        Stats merge(Stats o) {
+            if (o.n == 0) return this;
+            combine(o.n, o.mean, o.m2);
+            zeros += o.zeros;
+            sumLog += o.sumLog;
+            sumLogFactorial += o.sumLogFactorial;
+            min = Math.min(min, o.min);
+            max = Math.max(max, o.max);
+            counts &= o.counts;
+            return this;
+        }
+
+        boolean positive() { return min >= 0 && max > 0; }
+
+        double variance() { return m2 / n; }
+    }
+
+    private static final class StatsTask extends RecursiveTask<Stats> {
+        private final double[] data;
+        private final int from, to;
+
+        StatsTask(double[] data, int from, int to) {
+            this.data = data;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (to - from <= CHUNK) {
+                Stats s = new Stats();
+                s.add(data, from, to);
+                return s;
+            }
+            int mid = from + (to - from) / 2;
+            StatsTask left = new StatsTask(data, from, mid);
+            left.fork();
+            Stats right = new StatsTask(data, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private static Stats stats(double[] data) {
+        if (data.length < 2) throw new IllegalArgumentException("need at least 2 values, got " + data.length);
+        return ForkJoinPool.commonPool().invoke(new StatsTask(data, 0, data.length));
+    }
+
+    private static double[] sorted(double[] data) {
+        double[] s = data.clone();
+        Arrays.parallelSort(s);
+        return s;
+    }
+
+    // ---- pass 2: KS and chi-square for a continuous CDF ----
+
+    /** max |F_n - F| over a chunk plus its counts in m equiprobable bins. */
+    private static final class TestResult {
+        double d;
+        long[] bins;
+
+        TestResult merge(TestResult o) {
+            d = Math.max(d, o.d);
+            for (int j = 0; j < bins.length; j++) bins[j] += o.bins[j];
+            return this;
+        }
+    }
+
+    private static final class TestTask extends RecursiveTask<TestResult> {
+        private final double[] sorted;
+        private final int from, to, bins;
+        private final DoubleUnaryOperator cdf;
+
+        TestTask(double[] sorted, int from, int to, int bins, DoubleUnaryOperator cdf) {
+            this.sorted = sorted;
+            this.from = from;
+            this.to = to;
+            this.bins = bins;
+            this.cdf = cdf;
+        }
+
+        // The data are sorted and F is monotone, so F at the two ends of a
+        // block bounds it inside. A block is scanned value by value only if
+        // those bounds could beat the largest deviation seen so far or the
+        // block crosses a bin edge; elsewhere its ends decide it exactly.
+        @Override
+        protected TestResult compute() {
+            if (to - from <= CHUNK) {
+                TestResult r = new TestResult();
+                r.bins = new long[bins];
+                int blocks = (to - from + BLOCK - 1) / BLOCK;
+                double[] first = new double[blocks], last = new double[blocks];
+                for (int b = 0; b < blocks; b++) {
+                    int s = from + b * BLOCK, e = Math.min(to, s + BLOCK);
+                    first[b] = cdf.applyAsDouble(sorted[s]);
+                    last[b] = e - s == 1 ? first[b] : cdf.applyAsDouble(sorted[e - 1]);
+                    r.d = Math.max(r.d, deviation(first[b], s));
+                    r.d = Math.max(r.d, deviation(last[b], e - 1));
+                }
+                double n = sorted.length;
+                for (int b = 0; b < blocks; b++) {
+                    int s = from + b * BLOCK, e = Math.min(to, s + BLOCK);
+                    int lowBin = bin(first[b]), highBin = bin(last[b]);
+                    boolean mayExceed = last[b] - s / n > r.d || e / n - first[b] > r.d;
+                    if (!mayExceed && lowBin == highBin) {
+                        r.bins[lowBin] += e - s;
+                        continue;
+                    }
+                    for (int i = s; i < e; i++) {
+                        double f = i == s ? first[b] : i == e - 1 ? last[b] : cdf.applyAsDouble(sorted[i]);
+                        r.d = Math.max(r.d, deviation(f, i));
+                        r.bins[bin(f)]++;
+                    }
+                }
+                return r;
+            }
+            int mid = from + (to - from) / 2;
+            TestTask left = new TestTask(sorted, from, mid, bins, cdf);
+            left.fork();
+            TestResult right = new TestTask(sorted, mid, to, bins, cdf).compute();
+            return left.join().merge(right);
+        }
+
+        /** |F_n - F| on both sides of the step at sorted index i */
+        private double deviation(double f, int i) {
+            double n = sorted.length;
+            return Math.max(f - i / n, (i + 1) / n - f);
+        }
+
+        private int bin(double f) {
+            return Math.min(bins - 1, Math.max(0, (int) (f * bins)));
+        }
+    }
+
+    /** Equiprobable bin count: about 2 n^0.4, at least 5 expected per bin. */
+    private static int binCount(long n) {
+        long m = (long) Math.ceil(2 * Math.pow(n, 0.4));
+        return (int) Math.max(1, Math.min(Math.min(m, MAX_BINS), n / (long) MIN_EXPECTED));
+    }
+
+    /** {D, chi-square, bins} of the sorted data against cdf. */
+    private static double[] continuousTests(double[] sorted, DoubleUnaryOperator cdf) {
+        int bins = binCount(sorted.length);
+        TestResult r = ForkJoinPool.commonPool().invoke(new TestTask(sorted, 0, sorted.length, bins, cdf));
+        double expected = (double) sorted.length / bins, chi = 0;
+        for (long observed : r.bins) chi += (observed - expected) * (observed - expected) / expected;
+        return new double[] { r.d, chi, bins };
+    }
+
+    // ---- uniform ----
+
+    public static Fit fitUniform(double[] data) {
+        return fitUniform(stats(data), sorted(data));
+    }
+
+    private static Fit fitUniform(Stats s, double[] sorted) {
+        double a = s.min, b = s.max;
+        if (!(b > a)) throw new IllegalArgumentException("uniform fit needs at least two distinct values");
+        double width = b - a;
+        double[] t = continuousTests(sorted, x -> UniformProbability.probability(a, b, a, x));
+        return new Fit("uniform", "MLE", new String[] { "a", "b" }, new double[] { a, b }, s.n,
+                -s.n * Math.log(width), t[0], t[1], (int) t[2] - 1 - 2);
+    }
+
+    // ---- poisson ----
+
+    public static Fit fitPoisson(double[] data) {
+        return fitPoisson(stats(data), sorted(data));
+    }
+
+    private static Fit fitPoisson(Stats s, double[] sorted) {
+        if (!s.counts) throw new IllegalArgumentException("poisson fit needs whole numbers >= 0");
+        if (!(s.max > 0)) throw new IllegalArgumentException("poisson fit needs at least one nonzero count");
+        double lam = s.mean, n = s.n;
+        double logLikelihood = s.n * s.mean * Math.log(lam) - s.n * lam - s.sumLogFactorial;
+
+        // Only [low, high], the data's range cut to λ ± POISSON_SPREAD (√λ + 1),
+        // is walked value by value; the mass outside it is the cdf/sf of its
+        // ends, and observed values out there are taken run by run from the
+        // sorted copy, so the work is O(min(max - min, √λ) + distinct values)
+        // however far the data reach.
+        double spread = POISSON_SPREAD * (Math.sqrt(lam) + 1);
+        int low = (int) Math.max(s.min, Math.floor(lam - spread));
+        int high = (int) Math.min(s.max, Math.ceil(lam + spread));
+        ChiSquareBins chi = new ChiSquareBins();
+        KsSteps ks = new KsSteps(n);
+
+        int i = 0;
+        long observedBelow = 0;
+        while (i < sorted.length && sorted[i] < low) {
+            int v = (int) sorted[i];
+            int run = runLength(sorted, i);
+            ks.step(Poisson.cdf(v, lam), Poisson.pmf(v, lam), run);
+            observedBelow += run;
+            i += run;
+        }
+        double cdf = low == 0 ? 0 : Poisson.cdf(low - 1, lam);
+        chi.add(n * cdf, observedBelow);
+
+        double pmf = Poisson.pmf(low, lam);
+        for (int k = low; k <= high; k++) {
+            if (k > low) pmf *= lam / k;
+            cdf = Math.min(cdf + pmf, 1);
+            int run = 0;
+            if (i < sorted.length && sorted[i] == k) {
+                run = runLength(sorted, i);
+                ks.step(cdf, pmf, run);
+                i += run;
+            }
+            chi.add(n * pmf, run);
+        }
+
+        long observedAbove = sorted.length - i;
+        while (i < sorted.length) {
+            int v = (int) sorted[i];
+            int run = runLength(sorted, i);
+            ks.step(Poisson.cdf(v, lam), Poisson.pmf(v, lam), run);
+            i += run;
+        }
+        chi.add(n * Poisson.sf(high, lam), observedAbove);
+        chi.finish();
+
+        return new Fit("poisson", "MLE", new String[] { "lambda" }, new double[] { lam }, s.n,
+                logLikelihood, ks.d, chi.chi, chi.bins - 1 - 1);
+    }
+
+    /** Number of copies of sorted[from] starting at from. */
+    private static int runLength(double[] sorted, int from) {
+        int to = from + 1;
+        while (to < sorted.length && sorted[to] == sorted[from]) to++;
+        return to - from;
+    }
+
+    /**
+     * KS distance between the empirical and model step functions, fed the
+     * distinct values in order. Between two values F_n is flat while F
+     * rises, so the sup over the gap is at one of its ends: just below the
+     * next value (F(v) - pmf(v)) or at the value itself.
+     */
+    private static final class KsSteps {
+        private final double n;
+        private long seen;
+        double d;
+
+        KsSteps(double n) {
+            this.n = n;
+        }
+
+        void step(double cdf, double pmf, int count) {
+            d = Math.max(d, Math.abs(cdf - pmf - seen / n));
+            seen += count;
+            d = Math.max(d, Math.abs(cdf - seen / n));
+        }
+    }
+
+    /**
+     * Chi-square over consecutive values merged left to right until each bin
+     * expects at least MIN_EXPECTED; a short last bin folds into the one
+     * before it.
+     */
+    private static final class ChiSquareBins {
+        double chi;
+        int bins;
+        private double expected, lastExpected;
+        private long observed, lastObserved;
+
+        void add(double expectedCount, long observedCount) {
+            expected += expectedCount;
+            observed += observedCount;
+            if (expected >= MIN_EXPECTED) close();
+        }
+
+        void finish() {
+            if (expected == 0 && observed == 0) return;
+            if (expected < MIN_EXPECTED && bins > 0) {
+                chi -= term(lastObserved, lastExpected);
+                expected += lastExpected;
+                observed += lastObserved;
+                bins--;
+            }
+            close();
+        }
+
+        private void close() {
+            chi += term(observed, expected);
+            bins++;
+            lastExpected = expected;
+            lastObserved = observed;
+            expected = 0;
+            observed = 0;
+        }
+
+        private static double term(long observed, double expected) {
+            return (observed - expected) * (observed - expected) / expected;
+        }
+    }
+
+    /**
+     * Whether a count series could plausibly be Poisson: every value within
+     * λ ± POISSON_SPREAD (√λ + 1) of its mean. Samples of a billion Poisson
+     * values stay well inside that; readings such as timestamps or sensor
+     * codes that merely happen to be whole numbers do not.
+     */
+    private static boolean poissonPlausible(Stats s) {
+        double spread = POISSON_SPREAD * (Math.sqrt(s.mean) + 1);
+        return s.max <= s.mean + spread && s.min >= s.mean - spread;
+    }
+
+    // ---- gamma ----
+
+    public static Fit fitGamma(double[] data) {
+        return fitGamma(stats(data), sorted(data));
+    }
+
+    private static Fit fitGamma(Stats s, double[] sorted) {
+        if (!s.positive()) throw new IllegalArgumentException("gamma fit needs values >= 0, not all zero");
+        if (!(s.m2 > 0)) throw new IllegalArgumentException("gamma fit needs at least two distinct values");
+        double k;
+        String method;
+        double logLikelihood;
+        if (s.zeros > 0) {
+            // ln 0 rules out the likelihood; match mean and variance instead.
+            k = s.mean * s.mean / s.variance();
+            method = "moments";
+            logLikelihood = Double.NaN;
+        } else {
+            k = gammaShape(Math.log(s.mean) - s.sumLog / s.n);
+            method = "MLE";
+            double theta = s.mean / k;
+            logLikelihood = (k - 1) * s.sumLog - s.n * s.mean / theta - s.n * k * Math.log(theta)
+                    - s.n * SpecialFunctions.logGamma(k);
+        }
+        double shape = k, scale = s.mean / k;
+        double[] t = continuousTests(sorted, x -> GammaDistribution.cdf(shape, scale, x));
+        return new Fit("gamma", method, new String[] { "k", "theta" }, new double[] { shape, scale }, s.n,
+                logLikelihood, t[0], t[1], (int) t[2] - 1 - 2);
+    }
+
+    /**
+     * Maximum-likelihood gamma shape: the root of ln k - ψ(k) = logMeanRatio,
+     * where logMeanRatio = ln(mean) - mean(ln x) > 0. Minka's closed form
+     * starts within about 1.5%, so Newton needs only a few steps.
+     */
+    static double gammaShape(double logMeanRatio) {
+        double r = logMeanRatio;
+        if (!(r > 0)) throw new IllegalArgumentException("gamma fit needs values that are not all equal");
+        double k = (3 - r + Math.sqrt((r - 3) * (r - 3) + 24 * r)) / (12 * r);
+        for (int i = 0; i < 100; i++) {
+            double f = Math.log(k) - SpecialFunctions.digamma(k) - r;
+            double slope = 1 / k - SpecialFunctions.trigamma(k);
+            double next = k - f / slope;
+            if (next <= 0) next = k / 2;
+            if (Math.abs(next - k) <= 1e-14 * k) return next;
+            k = next;
+        }
+        return k;
+    }
+
+    // ---- everything at once ----
+
+    /**
+     * Fits every distribution the data allows, sharing one statistics pass
+     * and one sorted copy: uniform always, poisson for counts that lie
+     * within λ ± 10 (√λ + 1) of their mean, gamma for non-negative data.
+     * Needs at least two distinct values.
+     */
+    public static List<Fit> fitAll(double[] data) {
+        Stats s = stats(data);
+        if (!(s.max > s.min)) throw new IllegalArgumentException("need at least two distinct values");
+        double[] sorted = sorted(data);
+        List<Fit> fits = new ArrayList<>();
+        fits.add(fitUniform(s, sorted));
+        if (s.counts && poissonPlausible(s)) fits.add(fitPoisson(s, sorted));
+        if (s.positive()) fits.add(fitGamma(s, sorted));
+        return fits;
+    }
+
+    /** fitAll() for each series, in parallel; results are in series order. */
+    public static List<List<Fit>> fitSeries(double[][] series) {
+        return IntStream.range(0, series.length).parallel()
+                .mapToObj(i -> fitAll(series[i]))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * P(D_n > d) from the Kolmogorov distribution, with Stephens' small-n
+     * correction λ = (√n + 0.12 + 0.11/√n) d.
+     */
+    static double kolmogorovPValue(double d, long n) {
+        double sqrtN = Math.sqrt(n);
+        double lambda = (sqrtN + 0.12 + 0.11 / sqrtN) * d;
+        if (lambda < 0.2) return 1;
+        double sum = 0;
+        if (lambda < 1.18) {
+            // 1 - (√(2π)/λ) Σ exp(-(2j-1)² π² / (8 λ²)), fast for small λ
+            double c = -Math.PI * Math.PI / (8 * lambda * lambda);
+            for (int j = 1; j <= 6; j++) sum += Math.exp((2 * j - 1) * (2 * j - 1) * c);
+            return Math.max(0, Math.min(1, 1 - Math.sqrt(2 * Math.PI) / lambda * sum));
+        }
+        // 2 Σ (-1)^(j-1) exp(-2 j² λ²), fast for large λ
+        for (int j = 1; j <= 100; j++) {
+            double term = Math.exp(-2.0 * j * j * lambda * lambda);
+            sum += (j % 2 == 1) ? term : -term;
+            if (term < 1e-17 * sum) break;
+        }
+        return Math.max(0, Math.min(1, 2 * sum));
+    }
+
+    // Simulated batch run: many "sensor" series drawn from known
+    // distributions, each fitted to every family, with the share of series
+    // each test rejects at the 1% level.
+    // Usage: DistributionFitter [series] [length] [seed]
+    public static void main(String[] args) {
+        int count = args.length >= 1 ? Integer.parseInt(args[0]) : 3000;
+        int length = args.length >= 2 ? Integer.parseInt(args[1]) : 5000;
+        long seed = args.length >= 3 ? Long.parseLong(args[2]) : 1;
+
+        String[] truth = { "uniform", "poisson", "gamma" };
+        double[][] series = new double[count][];
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for (int i = 0; i < count; i++) {
+            SplittableRandom rng = seeds.split();
+            double[] v = new double[length];
+            switch (i % 3) {
+                case 0:
+                    double lo = rng.nextDouble(-10, 0), hi = lo + rng.nextDouble(1, 20);
+                    for (int j = 0; j < length; j++) v[j] = rng.nextDouble(lo, hi);
+                    break;
+                case 1:
+                    double lam = rng.nextDouble(0.5, 50);
+                    double[] cdf = Poisson.cdfTable((int) (lam + 20 * Math.sqrt(lam) + 20), lam);
+                    for (int j = 0; j < length; j++) {
+                        int k = Arrays.binarySearch(cdf, rng.nextDouble());
+                        v[j] = k >= 0 ? k : Math.min(-k - 1, cdf.length - 1);
+                    }
+                    break;
+                default:
+                    double shape = rng.nextDouble(0.3, 20), scale = rng.nextDouble(0.1, 10);
+                    for (int j = 0; j < length; j++) v[j] = GammaDistribution.sample(shape, scale, rng);
+            }
+            series[i] = v;
+        }
+
+        long t0 = System.nanoTime();
+        List<List<Fit>> fits = fitSeries(series);
+        double seconds = (System.nanoTime() - t0) / 1e9;
+
+        System.out.println("Series 0-2:");
+        for (int i = 0; i < 3; i++) {
+            System.out.println("  true " + truth[i]);
+            for (Fit f : fits.get(i)) System.out.println("    " + f);
+        }
+        System.out.println("Share of series rejected at 1% (KS / chi-square), by true and fitted family:");
+        System.out.printf("%-8s %-8s %9s %9s%n", "true", "fitted", "KS", "chi2");
+        for (int t = 0; t < truth.length; t++) {
+            for (String family : truth) {
+                int fitted = 0, ks = 0, chi = 0;
+                for (int i = t; i < count; i += 3) {
+                    for (Fit f : fits.get(i)) {
+                        if (!f.distribution.equals(family)) continue;
+                        fitted++;
+                        if (f.ksPValue < 0.01) ks++;
+                        if (f.chiSquarePValue < 0.01) chi++;
+                    }
+                }
+                if (fitted > 0) {
+                    System.out.printf("%-8s %-8s %8.1f%% %8.1f%%%n", truth[t], family, 100.0 * ks / fitted, 100.0 * chi / fitted);
+                }
+            }
+        }
+        System.out.printf("Fitted %d series of %d values in %.2f s.%n", count, length, seconds);
+    }
+}
@@ -1,40 +1,239 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.random.RandomGeneratorFactory;
+
 public class GammaDistribution {
-    /** Computes factorial of n */
-    private static long factorial(int n) {
-        long fact = 1;
-        for (int i = 2; i <= n; i++) {
-            fact *= i;
+
+    /** Generator behind the seeded sampler; split once per CHUNK variates. */
+    public static final String ALGORITHM = "L64X128MixRandom";
+    public static final int CHUNK = 1 << 16;
+
+    private static final int MAX_QUANTILE_ITERATIONS = 100;
+    /** Largest single increase of ln z in quantile(). */
+    private static final double MAX_LOG_STEP = 2;
+    /** ln of the smallest positive double; quantiles below it are 0. */
+    private static final double MIN_LOG_Z = Math.log(Double.MIN_VALUE);
+
+    private static void check(double k, double theta) {
+        if (!(k > 0) || !(theta > 0) || k == Double.POSITIVE_INFINITY || theta == Double.POSITIVE_INFINITY) {
+            throw new IllegalArgumentException("Invalid parameters: shape and scale must be finite and > 0");
+        }
+    }
+
+    /**
+     * Gamma PDF: f(x) = x^(k-1) * exp(-x/theta) / (theta^k * Γ(k))
+     * for any real shape k > 0 and scale theta > 0 (0 for x < 0).
+     * Written as a Poisson term in z = x/theta (Loader's saddle-point form),
+     * so large k and x neither overflow nor lose precision.
+     */
+    public static double pdf(double k, double theta, double x) {
+        check(k, theta);
+        if (x < 0) return 0;
+        if (x == 0) return k < 1 ? Double.POSITIVE_INFINITY : k == 1 ? 1 / theta : 0;
+        if (x == Double.POSITIVE_INFINITY) return 0;
+        double z = x / theta;
+        // k >= 1: f = P(k-1; z) / theta.  k < 1: f = P(k; z) * k / x, which stays finite.
+        return k < 1 ? Math.exp(SpecialFunctions.logPoissonTerm(k, z)) * k / x
+                     : Math.exp(SpecialFunctions.logPoissonTerm(k - 1, z)) / theta;
+    }
+
+    /** ln f(x), for likelihoods; -Infinity outside the support. */
+    public static double logPdf(double k, double theta, double x) {
+        check(k, theta);
+        if (x < 0 || x == Double.POSITIVE_INFINITY) return Double.NEGATIVE_INFINITY;
+        if (x == 0) return Math.log(pdf(k, theta, x));
+        double z = x / theta;
+        return k < 1 ? SpecialFunctions.logPoissonTerm(k, z) + Math.log(k / x)
+                     : SpecialFunctions.logPoissonTerm(k - 1, z) - Math.log(theta);
+    }
+
+    /**
+     * Gamma CDF: P(X <= x) = P(k, x/theta), the regularized lower incomplete
+     * gamma (series below x/theta = k + 1, continued fraction above).
+     */
+    public static double cdf(double k, double theta, double x) {
+        check(k, theta);
+        if (x <= 0) return 0;
+        return SpecialFunctions.regularizedGammaP(k, x / theta);
+    }
+
+    /** Upper tail P(X > x) = Q(k, x/theta), accurate where 1 - cdf() would round to 0. */
+    public static double sf(double k, double theta, double x) {
+        check(k, theta);
+        if (x <= 0) return 1;
+        return SpecialFunctions.regularizedGammaQ(k, x / theta);
+    }
+
+    /**
+     * Quantile (inverse CDF): the x with P(X <= x) = p.
+     * Newton's method in u = ln z on ln P(k, z) - ln p, or on ln Q(k, z) - ln(1-p)
+     * above the median.  Both are concave in u (ln X has a log-concave
+     * density), so the iteration cannot wander off in the far tails where
+     * steps on P(k, z) - p stall.  The small-z power law z^k / Γ(k+1), which
+     * never exceeds P(k, z), bounds the root from below: it is the start
+     * below the median and a floor for every step.  Above the median the
+     * start is the Wilson-Hilferty cube-root normal approximation.
+     * Throws ArithmeticException if the iteration does not converge.
+     */
+    public static double quantile(double k, double theta, double p) {
+        check(k, theta);
+        if (!(p >= 0 && p <= 1)) throw new IllegalArgumentException("p must be in [0, 1]");
+        if (p == 0) return 0;
+        if (p == 1) return Double.POSITIVE_INFINITY;
+
+        boolean upper = p > 0.5;
+        double logTarget = upper ? Math.log1p(-p) : Math.log(p);
+        double floor = (Math.log(p) + SpecialFunctions.logGamma(k + 1)) / k;
+        // P(k, z) -> z^k / Γ(k+1) as z -> 0, so a floor this low means the root underflows
+        if (floor < MIN_LOG_Z) return 0;
+        double u = floor;
+        if (upper) {
+            double c = 1 / (9 * k);
+            double w = 1 - c + normalQuantile(p) * Math.sqrt(c);
+            if (w > 0) u = Math.max(floor, Math.log(k) + 3 * Math.log(w));
         }
-        return fact;
+        double tolerance = 16 * Math.ulp(Math.max(1, -logTarget));
+        double lastStep = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < MAX_QUANTILE_ITERATIONS; i++) {
+            double z = Math.exp(u);
+            double logTail = upper ? SpecialFunctions.logRegularizedGammaQ(k, z)
+                                   : SpecialFunctions.logRegularizedGammaP(k, z);
+            double f = logTail - logTarget;
+            if (Math.abs(f) <= tolerance) return z * theta;
+            // d ln P / du = z f(z) / P; the upper tail has the opposite sign
+            double slope = Math.exp(u + logPdf(k, 1, z) - logTail);
+            double step = upper ? f / slope : -f / slope;
+            if (!Double.isFinite(step)) break;
+            // only an upward step from left of the root can overshoot
+            step = Math.min(step, MAX_LOG_STEP);
+            u = Math.max(floor, u + step);
+            step = Math.abs(step);
+            // done once z stops moving, or Newton stops shrinking at rounding level
+            if (step <= 1e-15 || (step >= lastStep && step < 1e-10)) return Math.exp(u) * theta;
+            lastStep = step;
+        }
+        throw new ArithmeticException("gamma quantile did not converge for k=" + k + ", p=" + p);
+    }
+
+    /** Starting value for quantile(): Acklam's rational approximation to the normal quantile (error < 1.2e-9). */
+    private static double normalQuantile(double p) {
+        double q = Math.min(p, 1 - p);
+        double x;
+        if (q < 0.02425) {
+            double t = Math.sqrt(-2 * Math.log(q));
+            x = (((((-7.784894002430293e-03 * t - 3.223964580411365e-01) * t - 2.400758277161838e+00) * t
+                    - 2.549732539343734e+00) * t + 4.374664141464968e+00) * t + 2.938163982698783e+00)
+                / ((((7.784695709041462e-03 * t + 3.224671290700398e-01) * t + 2.445134137142996e+00) * t
+                    + 3.754408661907416e+00) * t + 1);
+        } else {
+            double t = q - 0.5, r = t * t;
+            x = (((((-3.969683028665376e+01 * r + 2.209460984245205e+02) * r - 2.759285104469687e+02) * r
+                    + 1.383577518672690e+02) * r - 3.066479806614716e+01) * r + 2.506628277459239e+00) * t
+                / (((((-5.447609879822406e+01 * r + 1.615858368580409e+02) * r - 1.556989798598866e+02) * r
+                    + 6.680131188771972e+01) * r - 1.328068155288572e+01) * r + 1);
+        }
+        // x is the quantile of the smaller tail q (negative); mirror for p > 1/2
+        return p > 0.5 ? -x : x;
     }
 
     /**
-     * Gamma PDF: f(x) = x^(k-1) * exp(-x/theta) / (theta^k * (k-1)!)
-     * for x >= 0, integer shape k > 0
+     * One Gamma(k, theta) variate by Marsaglia and Tsang's squeeze method
+     * (about 1.03 normal draws per variate for k >= 1); k < 1 draws
+     * Gamma(k + 1) and scales it by U^(1/k).
      */
-    public static double pdf(int k, double theta, double x) {
-        if (x < 0 || k <= 0 || theta <= 0) {
-            throw new IllegalArgumentException("Invalid parameters");
+    public static double sample(double k, double theta, RandomGenerator rng) {
+        check(k, theta);
+        if (k < 1) {
+            double u = rng.nextDouble();
+            return sampleAtLeastOne(k + 1, rng) * Math.pow(u, 1 / k) * theta;
+        }
+        return sampleAtLeastOne(k, rng) * theta;
+    }
+
+    private static double sampleAtLeastOne(double k, RandomGenerator rng) {
+        double d = k - 1.0 / 3, c = 1 / Math.sqrt(9 * d);
+        while (true) {
+            double x, v;
+            do {
+                x = rng.nextGaussian();
+                v = 1 + c * x;
+            } while (v <= 0);
+            v = v * v * v;
+            double u = rng.nextDouble();
+            double x2 = x * x;
+            if (u < 1 - 0.0331 * x2 * x2) return d * v;
+            if (Math.log(u) < 0.5 * x2 + d * (1 - v + Math.log(v))) return d * v;
         }
-        double numerator = Math.pow(x, k - 1) * Math.exp(-x / theta);
-        double denominator = Math.pow(theta, k) * factorial(k - 1);
-        return numerator / denominator;
     }
 
     /**
-     * Gamma CDF for integer shape k:
-     * P(X <= x) = 1 - exp(-x/theta) * sum_{j=0 to k-1} (x/theta)^j / j!
+     * Fills out[0, n) with Gamma(k, theta) variates on the common ForkJoinPool.
+     * A root L64X128MixRandom seeded with seed is split once per CHUNK
+     * variates, in order, so the array depends only on (k, theta, n, seed)
+     * and never on the number of threads.
      */
-    public static double cdf(int k, double theta, double x) {
-        if (x < 0 || k <= 0 || theta <= 0) {
-            throw new IllegalArgumentException("Invalid parameters");
+    public static void sample(double k, double theta, double[] out, int n, long seed) {
+        check(k, theta);
+        if (out.length < n) throw new IllegalArgumentException("array shorter than n");
+        SplittableGenerator root = (SplittableGenerator) RandomGeneratorFactory.of(ALGORITHM).create(seed);
+        SplittableGenerator[] streams = new SplittableGenerator[(int) ((n + (long) CHUNK - 1) / CHUNK)];
+        for (int c = 0; c < streams.length; c++) streams[c] = root.split();
+        if (streams.length <= 1) {
+            if (streams.length == 1) fillChunk(k, theta, out, n, 0, streams[0]);
+            return;
         }
-        double sum = 0;
-        double z = x / theta;
-        for (int j = 0; j < k; j++) {
-            sum += Math.pow(z, j) / factorial(j);
+        ForkJoinPool.commonPool().invoke(new ChunkTask(k, theta, out, n, streams, 0, streams.length));
+    }
+
+    public static double[] sample(double k, double theta, int n, long seed) {
+        double[] out = new double[n];
+        sample(k, theta, out, n, seed);
+        return out;
+    }
+
+    private static void fillChunk(double k, double theta, double[] out, int n, int chunk, RandomGenerator rng) {
+        int from = chunk * CHUNK;
+        int to = (int) Math.min(n, (long) from + CHUNK);
+        if (k < 1) {
+            double invK = 1 / k;
+            for (int i = from; i < to; i++) {
+                double u = rng.nextDouble();
+                out[i] = sampleAtLeastOne(k + 1, rng) * Math.pow(u, invK) * theta;
+            }
+        } else {
+            for (int i = from; i < to; i++) out[i] = sampleAtLeastOne(k, rng) * theta;
+        }
+    }
+
+    private static final class ChunkTask extends RecursiveAction {
+        private final double k, theta;
+        private final double[] out;
+        private final int n;
+        private final SplittableGenerator[] streams;
+        private final int firstChunk, endChunk;
+
+        ChunkTask(double k, double theta, double[] out, int n, SplittableGenerator[] streams, int firstChunk, int endChunk) {
+            this.k = k;
+            this.theta = theta;
+            this.out = out;
+            this.n = n;
+            this.streams = streams;
+            this.firstChunk = firstChunk;
+            this.endChunk = endChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (endChunk - firstChunk == 1) {
+                fillChunk(k, theta, out, n, firstChunk, streams[firstChunk]);
+                return;
+            }
+            int mid = (firstChunk + endChunk) >>> 1;
+            invokeAll(new ChunkTask(k, theta, out, n, streams, firstChunk, mid),
+                      new ChunkTask(k, theta, out, n, streams, mid, endChunk));
         }
-        return 1 - Math.exp(-z) * sum;
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,74 @@
+import java.util.Arrays;
+
+/**
+ * Shared, thread-safe cache of ln n! for the StatsLibrary.
+ *
+ * The first EAGER entries are built when the class loads; larger n grow the
+ * table on demand (at least doubling it) up to MAX_CACHED entries, beyond
+ * which ln n! comes straight from Stirling's series. Each entry is computed
+ * on its own by SpecialFunctions.stirlingLogGamma, never by summing logs, so
+ * no value depends on the order in which threads grew the table. A published table is never modified:
+ * readers take the current array from a volatile field without locking, and
+ * only growth is synchronized.
+ */
+public final class LogFactorials {
+
+    /** Entries built up front; covers every n the small-count paths use. */
+    static final int EAGER = 256;
+    /** The table never grows past this many entries (8 MB of doubles). */
+    static final int MAX_CACHED = 1 << 20;
+
+    private static final double HALF_LOG_2PI = 0.5 * Math.log(2 * Math.PI);
+    /** Below this, stirlingError() is a lookup rather than its series. */
+    private static final int STIRLING_TABLE = 16;
+
+    private static volatile double[] table = extend(new double[0], EAGER);
+    private static final double[] STIRLING_ERROR = new double[STIRLING_TABLE];
+    static {
+        for (int n = 1; n < STIRLING_TABLE; n++) {
+            STIRLING_ERROR[n] = table[n] - (n + 0.5) * Math.log(n) + n - HALF_LOG_2PI;
+        }
+    }
+
+    private LogFactorials() { }
+
+    /** ln n!: a table lookup for n < MAX_CACHED, Stirling's series above. */
+    public static double logFactorial(int n) {
+        if (n < 0) throw new IllegalArgumentException("n must be >= 0, got " + n);
+        double[] t = table;
+        if (n < t.length) return t[n];
+        if (n >= MAX_CACHED) return SpecialFunctions.stirlingLogGamma(n + 1.0);
+        return grow(n)[n];
+    }
+
+    /**
+     * Stirling-formula error δ(n) = ln n! - [(n + 1/2) ln n - n + ln √(2π)]
+     * for whole n with 1 <= n < 16, the range where its series does not yet
+     * converge; larger n use SpecialFunctions.stirlingError.
+     */
+    static double stirlingError(int n) {
+        return STIRLING_ERROR[n];
+    }
+
+    /** Number of entries currently cached. */
+    public static int cachedSize() {
+        return table.length;
+    }
+
+    private static synchronized double[] grow(int n) {
+        double[] t = table;
+        if (n < t.length) return t;   // another thread got here first
+        int size = (int) Math.min(MAX_CACHED, Math.max(n + 1L, 2L * t.length));
+        t = extend(t, size);
+        table = t;
+        return t;
+    }
+
+    private static double[] extend(double[] old, int size) {
+        double[] t = Arrays.copyOf(old, size);
+        for (int n = Math.max(old.length, 2); n < size; n++) {
+            t[n] = SpecialFunctions.stirlingLogGamma(n + 1.0);
+        }
+        return t;
+    }
+}
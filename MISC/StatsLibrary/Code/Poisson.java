@@ -1,30 +1,143 @@
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
 public class Poisson {
-    /** Poisson PMF: P(X=k) = e^{-lam} * lam^k / k! **/
+
+    /** From this k on, cdf() switches from the O(k) sum to the incomplete gamma. */
+    private static final int RECURRENCE_LIMIT = 1000;
+    /** Batches at least this long are filled in parallel. */
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    /**
+     * ln P(X=k) = k ln(lam) - lam - ln k!, never overflowing, and evaluated
+     * in Loader's saddle-point form so large k and lam keep full precision.
+     **/
+    public static double logPmf(int k, double lam) {
+        check(lam);
+        if (k < 0) return Double.NEGATIVE_INFINITY;
+        if (lam == 0) return k == 0 ? 0 : Double.NEGATIVE_INFINITY;
+        return SpecialFunctions.logPoissonTerm(k, lam);
+    }
+
+    /** Poisson PMF: P(X=k) = e^{-lam} * lam^k / k!, evaluated in log space **/
     public static double pmf(int k, double lam) {
-        return Math.exp(-lam) * Math.pow(lam, k) / factorial(k);
+        return Math.exp(logPmf(k, lam));
     }
 
-    /** Poisson CDF: P(X<=k) = sum_{i=0..k} PMF(i) **/
+    /**
+     * Poisson CDF: P(X<=k) = sum_{i=0..k} PMF(i).
+     * From k = lam up, where the upper tail is the small side, it is
+     * 1 - P(k+1, lam), whose series keeps full precision.  Below lam, up to
+     * RECURRENCE_LIMIT, the terms come from one PMF and the recurrence
+     * PMF(i-1) = PMF(i) * i / lam, summed from i = k down until they stop
+     * mattering (O(k) at worst); above it, P(X<=k) = Q(k+1, lam).
+     **/
     public static double cdf(int k, double lam) {
+        check(lam);
+        if (k < 0) return 0;
+        if (lam == 0) return 1;
+        if (k >= lam) return 1 - SpecialFunctions.regularizedGammaP(k + 1.0, lam);
+        if (k >= RECURRENCE_LIMIT) return SpecialFunctions.regularizedGammaQ(k + 1.0, lam);
+        // every ratio i / lam is below 1, so the terms only shrink
+        double term = 1, sum = 1, invLam = 1 / lam;
+        for (int i = k; i > 0; i--) {
+            term *= i * invLam;
+            sum += term;
+            if (term < sum * 1e-17) break;
+        }
+        return Math.min(Math.exp(logPmf(k, lam) + Math.log(sum)), 1.0);
+    }
+
+    /** Upper tail P(X>k) = P(k+1, lam), accurate far out where 1 - cdf() would round to 0. **/
+    public static double sf(int k, double lam) {
+        check(lam);
+        if (k < 0) return 1;
+        if (lam == 0) return 0;
+        return SpecialFunctions.regularizedGammaP(k + 1.0, lam);
+    }
+
+    private static void check(double lam) {
+        if (!(lam >= 0) || lam == Double.POSITIVE_INFINITY) {
+            throw new IllegalArgumentException("lam must be finite and >= 0, got " + lam);
+        }
+    }
+
+    // ---- batch versions: out[i] = f(k[i], lam[i]) ----
+
+    public static double[] logPmf(int[] k, double[] lam) {
+        checkLengths(k, lam);
+        double[] out = new double[k.length];
+        fill(out, i -> logPmf(k[i], lam[i]));
+        return out;
+    }
+
+    public static double[] pmf(int[] k, double[] lam) {
+        checkLengths(k, lam);
+        double[] out = new double[k.length];
+        fill(out, i -> pmf(k[i], lam[i]));
+        return out;
+    }
+
+    public static double[] cdf(int[] k, double[] lam) {
+        checkLengths(k, lam);
+        double[] out = new double[k.length];
+        fill(out, i -> cdf(k[i], lam[i]));
+        return out;
+    }
+
+    public static double[] sf(int[] k, double[] lam) {
+        checkLengths(k, lam);
+        double[] out = new double[k.length];
+        fill(out, i -> sf(k[i], lam[i]));
+        return out;
+    }
+
+    /** PMF(0..kMax) for one rate, by the recurrence from the mode outwards: O(kMax). **/
+    public static double[] pmfTable(int kMax, double lam) {
+        check(lam);
+        double[] p = new double[kMax + 1];
+        if (lam == 0) {
+            p[0] = 1;
+            return p;
+        }
+        // Starting at the mode keeps every step away from under/overflow.
+        int mode = (int) Math.min(kMax, Math.floor(lam));
+        p[mode] = pmf(mode, lam);
+        for (int i = mode + 1; i <= kMax; i++) p[i] = p[i - 1] * lam / i;
+        for (int i = mode; i > 0; i--) p[i - 1] = p[i] * i / lam;
+        return p;
+    }
+
+    /** CDF(0..kMax) for one rate: running sum of pmfTable. **/
+    public static double[] cdfTable(int kMax, double lam) {
+        double[] c = pmfTable(kMax, lam);
         double sum = 0;
-        for (int i = 0; i <= k; i++) {
-            sum += pmf(i, lam);
+        for (int i = 0; i <= kMax; i++) {
+            sum += c[i];
+            c[i] = Math.min(sum, 1.0);
         }
-        return sum;
+        return c;
     }
 
-    /** Simple integer factorial **/
-    private static long factorial(int n) {
-        long f = 1;
-        for (int i = 2; i <= n; i++) f *= i;
-        return f;
+    private static void checkLengths(int[] k, double[] lam) {
+        if (k.length != lam.length) {
+            throw new IllegalArgumentException("k and lam differ in length: " + k.length + " vs " + lam.length);
+        }
+    }
+
+    private static void fill(double[] out, IntToDoubleFunction f) {
+        if (out.length >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSetAll(out, f);
+        } else {
+            Arrays.setAll(out, f);
+        }
     }
 
     public static void main(String[] args) {
         double lam = 1.9;
         int k = 3;
         double pmf = pmf(k, lam);
-        double probGe3 = 1 - cdf(k - 1, lam);
+        double probGe3 = sf(k - 1, lam);
         System.out.printf("P(X=%d) = %.4f%n", k, pmf);
         System.out.printf("P(X>=%d) = %.4f%n", k, probGe3);
     }
@@ -0,0 +1,279 @@
+public class SpecialFunctions {
+
+    private static final double EPS = 1e-16;
+    private static final double TINY = 1e-300;
+    private static final int MAX_ITERATIONS = 1_000_000;
+    /** Shapes from here on use the uniform expansion in the incomplete gamma. */
+    private static final double LARGE_A = 1e5;
+    private static final double HALF_LOG_2PI = 0.5 * Math.log(2 * Math.PI);
+
+    private SpecialFunctions() { }
+
+    /**
+     * ln Γ(x) for x > 0.
+     * Whole x is looked up in the shared LogFactorials table; any other x
+     * goes to stirlingLogGamma.
+     */
+    public static double logGamma(double x) {
+        if (!(x > 0)) {
+            throw new IllegalArgumentException("logGamma needs x > 0, got " + x);
+        }
+        if (x < LogFactorials.MAX_CACHED && x == (int) x) return LogFactorials.logFactorial((int) x - 1);
+        return stirlingLogGamma(x);
+    }
+
+    /**
+     * ln Γ(x) computed afresh, for x > 0: Stirling's series for x >= 10
+     * (error below 1e-16 there); smaller x is shifted up with
+     * Γ(x) = Γ(x + n) / (x (x+1) ... (x+n-1)).
+     */
+    static double stirlingLogGamma(double x) {
+        if (x == Double.POSITIVE_INFINITY) return x;
+        double shift = 1;
+        while (x < 10) {
+            shift *= x;
+            x += 1;
+        }
+        double inv = 1 / x, inv2 = inv * inv;
+        double series = inv * (1.0 / 12 - inv2 * (1.0 / 360 - inv2 * (1.0 / 1260 - inv2 * (1.0 / 1680
+                - inv2 * (1.0 / 1188 - inv2 * (691.0 / 360360 - inv2 / 156))))));
+        return (x - 0.5) * Math.log(x) - x + HALF_LOG_2PI + series - Math.log(shift);
+    }
+
+    /**
+     * Digamma ψ(x) = d/dx ln Γ(x), for x > 0.
+     * Asymptotic series for x >= 10, with ψ(x) = ψ(x + 1) - 1/x below.
+     */
+    public static double digamma(double x) {
+        if (!(x > 0)) throw new IllegalArgumentException("digamma needs x > 0, got " + x);
+        double shift = 0;
+        while (x < 10) {
+            shift -= 1 / x;
+            x += 1;
+        }
+        double inv2 = 1 / (x * x);
+        double series = inv2 * (1.0 / 12 - inv2 * (1.0 / 120 - inv2 * (1.0 / 252 - inv2 * (1.0 / 240 - inv2 / 132))));
+        return Math.log(x) - 0.5 / x - series + shift;
+    }
+
+    /**
+     * Trigamma ψ'(x), for x > 0.
+     * Asymptotic series for x >= 10, with ψ'(x) = ψ'(x + 1) + 1/x² below.
+     */
+    public static double trigamma(double x) {
+        if (!(x > 0)) throw new IllegalArgumentException("trigamma needs x > 0, got " + x);
+        double shift = 0;
+        while (x < 10) {
+            shift += 1 / (x * x);
+            x += 1;
+        }
+        double inv = 1 / x, inv2 = inv * inv;
+        double series = inv * (1 + inv * (0.5 + inv * (1.0 / 6 - inv2 * (1.0 / 30 - inv2 * (1.0 / 42
+                - inv2 * (1.0 / 30 - inv2 * 5.0 / 66))))));
+        return series + shift;
+    }
+
+    /** ln n! = ln Γ(n + 1), from the shared LogFactorials table */
+    public static double logFactorial(int n) {
+        return LogFactorials.logFactorial(n);
+    }
+
+    /**
+     * Stirling-formula error δ(a) = ln Γ(a+1) - [(a + 1/2) ln a - a + ln √(2π)], a > 0.
+     * Its series is used from a = 15 up, where it needs no cancellation;
+     * whole a below that is a table lookup.
+     */
+    public static double stirlingError(double a) {
+        if (a <= 15) {
+            if (a >= 1 && a == (int) a) return LogFactorials.stirlingError((int) a);
+            return logGamma(a + 1) - (a + 0.5) * Math.log(a) + a - HALF_LOG_2PI;
+        }
+        double inv2 = 1 / (a * a);
+        if (a > 500) return (1.0 / 12 - inv2 / 360) / a;
+        if (a > 80) return (1.0 / 12 - inv2 * (1.0 / 360 - inv2 / 1260)) / a;
+        if (a > 35) return (1.0 / 12 - inv2 * (1.0 / 360 - inv2 * (1.0 / 1260 - inv2 / 1680))) / a;
+        return (1.0 / 12 - inv2 * (1.0 / 360 - inv2 * (1.0 / 1260 - inv2 * (1.0 / 1680 - inv2 / 1188)))) / a;
+    }
+
+    /**
+     * Deviance term D(x, m) = x ln(x/m) + m - x >= 0, computed without the
+     * cancellation of the direct formula when x is close to m (Loader, 2000).
+     */
+    public static double deviance(double x, double m) {
+        if (x == 0) return m;
+        if (Math.abs(x - m) < 0.1 * (x + m)) {
+            double v = (x - m) / (x + m);
+            double sum = (x - m) * v;
+            double term = 2 * x * v;
+            v *= v;
+            for (int j = 3; ; j += 2) {
+                term *= v;
+                double next = sum + term / j;
+                if (next == sum) return next;
+                sum = next;
+            }
+        }
+        return x * Math.log(x / m) + m - x;
+    }
+
+    /**
+     * ln(e^-m m^x / Γ(x+1)), the Poisson log-pmf extended to real x >= 0.
+     * Saddle-point form -δ(x) - D(x, m) - ln √(2πx): its terms stay small,
+     * so it keeps full relative precision even for x and m in the millions,
+     * where x ln m - m - ln Γ(x+1) cancels away most of its digits.
+     */
+    public static double logPoissonTerm(double x, double m) {
+        if (x == 0) return -m;
+        if (x < 10) return x * Math.log(m) - m - logGamma(x + 1);
+        return -stirlingError(x) - deviance(x, m) - 0.5 * Math.log(2 * Math.PI * x);
+    }
+
+    /**
+     * Regularized lower incomplete gamma P(a, x) = γ(a, x) / Γ(a), for a > 0, x >= 0.
+     * Uses the power series below x = a + 1 and the continued fraction above
+     * it, so each converges quickly; from a = LARGE_A on, where both would
+     * need about 9√a terms near x = a, Temme's uniform expansion instead.
+     */
+    public static double regularizedGammaP(double a, double x) {
+        check(a, x);
+        if (x == 0) return 0;
+        if (x == Double.POSITIVE_INFINITY) return 1;
+        if (a >= LARGE_A) return gammaTemme(a, x, false);
+        return x < a + 1 ? gammaSeries(a, x) * prefactor(a, x)
+                         : 1 - gammaContinuedFraction(a, x) * prefactor(a, x);
+    }
+
+    /** Regularized upper incomplete gamma Q(a, x) = 1 - P(a, x), accurate when it is tiny. */
+    public static double regularizedGammaQ(double a, double x) {
+        check(a, x);
+        if (x == 0) return 1;
+        if (x == Double.POSITIVE_INFINITY) return 0;
+        if (a >= LARGE_A) return gammaTemme(a, x, true);
+        return x < a + 1 ? 1 - gammaSeries(a, x) * prefactor(a, x)
+                         : gammaContinuedFraction(a, x) * prefactor(a, x);
+    }
+
+    /**
+     * ln P(a, x).  On the series side the prefactor is kept as a logarithm,
+     * so the result stays finite far below where P(a, x) underflows.
+     */
+    public static double logRegularizedGammaP(double a, double x) {
+        check(a, x);
+        if (x == 0) return Double.NEGATIVE_INFINITY;
+        if (x == Double.POSITIVE_INFINITY) return 0;
+        if (a >= LARGE_A) return logGammaTemme(a, x, false);
+        return x < a + 1 ? Math.log(gammaSeries(a, x)) + logPrefactor(a, x)
+                         : Math.log1p(-gammaContinuedFraction(a, x) * prefactor(a, x));
+    }
+
+    /** ln Q(a, x), finite far beyond where Q(a, x) underflows (continued-fraction side). */
+    public static double logRegularizedGammaQ(double a, double x) {
+        check(a, x);
+        if (x == 0) return 0;
+        if (x == Double.POSITIVE_INFINITY) return Double.NEGATIVE_INFINITY;
+        if (a >= LARGE_A) return logGammaTemme(a, x, true);
+        return x < a + 1 ? Math.log1p(-gammaSeries(a, x) * prefactor(a, x))
+                         : Math.log(gammaContinuedFraction(a, x)) + logPrefactor(a, x);
+    }
+
+    private static void check(double a, double x) {
+        if (!(a > 0) || !(x >= 0)) {
+            throw new IllegalArgumentException("incomplete gamma needs a > 0 and x >= 0, got a=" + a + ", x=" + x);
+        }
+    }
+
+    /**
+     * Temme's uniform asymptotic expansion (DLMF 8.12), for large a:
+     * Q(a, x) = erfc(η √(a/2)) / 2 + e^(-a η²/2) / √(2πa) (c0(η) + c1(η)/a),
+     * with a η²/2 = D(a, x), the deviance, η taking the sign of x - a and
+     * λ = x/a. From LARGE_A on it agrees with the series to about 1e-13.
+     */
+    private static double gammaTemme(double a, double x, boolean upper) {
+        double t = deviance(a, x);
+        double eta = Math.copySign(Math.sqrt(2 * t / a), x - a);
+        double r = Math.exp(-t) * temmeCorrection(a, x, eta);
+        // half of erfc(|η| √(a/2)), the normal tail on the far side of x
+        double tail = 0.5 * regularizedGammaQ(0.5, t);
+        if (eta >= 0) {
+            return upper ? tail + r : 1 - tail - r;
+        }
+        return upper ? 1 - tail + r : tail - r;
+    }
+
+    /**
+     * ln of gammaTemme.  Both of its terms carry e^-t, so past t = 1.5 that
+     * factor is kept out of the sum and added back as -t: the small tail
+     * stays finite where e^-t underflows.
+     */
+    private static double logGammaTemme(double a, double x, boolean upper) {
+        double t = deviance(a, x);
+        if (t < 1.5) return Math.log(gammaTemme(a, x, upper));
+        double eta = Math.copySign(Math.sqrt(2 * t / a), x - a);
+        double r = temmeCorrection(a, x, eta);
+        // e^t Q(0.5, t) / 2 from the continued fraction, e^-t √(t/π) being its prefactor
+        double tail = 0.5 * gammaContinuedFraction(0.5, t) * Math.sqrt(t / Math.PI);
+        double logSmall = Math.log(eta >= 0 ? tail + r : tail - r) - t;
+        return upper == (eta >= 0) ? logSmall : Math.log1p(-Math.exp(logSmall));
+    }
+
+    /** (c0(η) + c1(η)/a) / √(2πa), the correction term of Temme's expansion without its e^-t. */
+    private static double temmeCorrection(double a, double x, double eta) {
+        double c0, c1;
+        if (Math.abs(eta) < 1e-2) {
+            // the closed forms cancel near λ = 1
+            c0 = -1.0 / 3 + eta * (1.0 / 12 + eta * (-2.0 / 135 + eta * (1.0 / 864 + eta / 2835)));
+            c1 = -1.0 / 540 - eta / 288;
+        } else {
+            double d = (x - a) / a;   // λ - 1
+            c0 = 1 / d - 1 / eta;
+            c1 = 1 / (eta * eta * eta) - 1 / (d * d * d) - 1 / (d * d) - 1 / (12 * d);
+        }
+        return (c0 + c1 / a) / Math.sqrt(2 * Math.PI * a);
+    }
+
+    /** e^-x x^a / Γ(a) = a e^-x x^a / Γ(a+1), the factor in front of both expansions. */
+    private static double prefactor(double a, double x) {
+        return a * Math.exp(logPoissonTerm(a, x));
+    }
+
+    private static double logPrefactor(double a, double x) {
+        return Math.log(a) + logPoissonTerm(a, x);
+    }
+
+    /** Σ x^n / (a (a+1)...(a+n)); P(a, x) is this times prefactor(a, x). */
+    private static double gammaSeries(double a, double x) {
+        double term = 1 / a, sum = term, ap = a;
+        for (int n = 0; n < MAX_ITERATIONS; n++) {
+            ap += 1;
+            term *= x / ap;
+            sum += term;
+            if (Math.abs(term) < Math.abs(sum) * EPS) {
+                return sum;
+            }
+        }
+        throw new ArithmeticException("gamma series did not converge for a=" + a + ", x=" + x);
+    }
+
+    /** Q(a, x) / prefactor(a, x) by its continued fraction, evaluated with the modified Lentz method. */
+    private static double gammaContinuedFraction(double a, double x) {
+        double b = x + 1 - a;
+        double c = 1 / TINY;
+        double d = 1 / b;
+        double h = d;
+        for (int i = 1; i < MAX_ITERATIONS; i++) {
+            double an = -i * (i - a);
+            b += 2;
+            d = an * d + b;
+            if (Math.abs(d) < TINY) d = TINY;
+            c = b + an / c;
+            if (Math.abs(c) < TINY) c = TINY;
+            d = 1 / d;
+            double delta = d * c;
+            h *= delta;
+            if (Math.abs(delta - 1) < EPS) {
+                return h;
+            }
+        }
+        throw new ArithmeticException("gamma continued fraction did not converge for a=" + a + ", x=" + x);
+    }
+}
@@ -1,14 +1,13 @@
 /*
    DataPlotter.java
-   • Generates (x, y) data for a nonlinear function (y = x² by default)
-   • Exports the points to plot_data.csv
+   • Generates (x, y) data for a nonlinear function (y = x² by default,
+     or any expression given on the command line, compiled by Expression)
+   • Exports the points to plot_data.csv (shared XYCsvWriter from javaMain/Code)
    • Displays the curve plus a mean‑line via JFreeChart
    • Uses Apache Commons Math to compute the mean and stdev
 */
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -31,22 +30,36 @@ public class DataPlotter {
         return x * x;                // parabola y = x²
     }
 
-    /** Generates a List<double[]> where each element is {x, y}. */
+    /** Generates a List<double[]> where each element is {x, y}, x = start + i·step. */
     public static List<double[]> generateData(double start,
                                               double end,
                                               double step) {
-        List<double[]> pts = new ArrayList<>();
-        for (double x = start; x <= end; x += step) {
+        int n = Expression.sampleCount(start, end, step);
+        List<double[]> pts = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            double x = start + i * step;
             pts.add(new double[] { x, f(x) });
         }
         return pts;
     }
 
+    /** Same grid for a user‑supplied expression, e.g. "sin(x)/x" (compiled once, filled in parallel). */
+    public static List<double[]> generateData(String expression,
+                                              double start,
+                                              double end,
+                                              double step) {
+        XYColumns cols = Expression.compile(expression).sample(start, end, step);
+        List<double[]> pts = new ArrayList<>(cols.size());
+        for (int i = 0; i < cols.size(); i++) {
+            pts.add(new double[] { cols.x(i), cols.y(i) });
+        }
+        return pts;
+    }
+
     /** Writes the list to CSV with header X,Y. */
     public static void writeToCSV(List<double[]> pts, String file) {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
-            pw.println("X,Y");
-            for (double[] p : pts) pw.println(p[0] + "," + p[1]);
+        try {
+            XYCsvWriter.write(pts, file);
             System.out.printf("CSV written: %s  (%d rows)%n",
                                file, pts.size());
         } catch (IOException ex) {
@@ -66,8 +79,9 @@ public class DataPlotter {
 
     /** Builds the dataset with both the curve and the mean line. */
     private static XYSeriesCollection buildDataset(List<double[]> pts,
-                                                   double mean) {
-        XYSeries curve = new XYSeries("y = x^2");
+                                                   double mean,
+                                                   String label) {
+        XYSeries curve = new XYSeries(label);
         for (double[] p : pts) curve.add(p[0], p[1]);
 
         XYSeries meanLine = new XYSeries("mean(y)");
@@ -99,14 +113,19 @@ public class DataPlotter {
         frame.setVisible(true);
     }
 
+    /** Usage: DataPlotter [expression] [start] [end] [step], e.g. DataPlotter "sin(x)/x" -20 20 0.01 */
     public static void main(String[] args) {
-        double start = -10, end = 10, step = 0.5;
+        double start = args.length >= 2 ? Double.parseDouble(args[1]) : -10;
+        double end   = args.length >= 3 ? Double.parseDouble(args[2]) : 10;
+        double step  = args.length >= 4 ? Double.parseDouble(args[3]) : 0.5;
+        String label = args.length >= 1 ? "y = " + args[0] : "y = x^2";
 
-        List<double[]> points = generateData(start, end, step);
+        List<double[]> points = args.length >= 1 ? generateData(args[0], start, end, step)
+                                                 : generateData(start, end, step);
         double mean = printStats(points);                 // Commons Math work
         writeToCSV(points, "plot_data.csv");
 
-        XYSeriesCollection dataset = buildDataset(points, mean);
-        showChart(dataset, "y = x^2 with mean line");
+        XYSeriesCollection dataset = buildDataset(points, mean, label);
+        showChart(dataset, label + " with mean line");
     }
 }
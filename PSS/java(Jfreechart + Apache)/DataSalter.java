@@ -1,20 +1,16 @@
 /*
    DataSalter.java
-   • Reads a CSV of (x, y) pairs
-   • Adds uniformly distributed noise ±range to each y
+   • Reads a CSV of (x, y) pairs (shared XYCsvReader from javaMain/Code)
+   • Adds noise to each y: uniform ±range by default, or any NoiseModel
+     (gaussian, laplace, poisson shot, outlier spikes), seeded and parallel
    • Computes a SimpleRegression on the noisy data (Commons Math)
    • Exports salted_data.csv
    • Shows original, salted, and regression‑line curves via JFreeChart
 */
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.PrintWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 /* JFreeChart & Swing */
 import org.jfree.chart.ChartFactory;
@@ -31,43 +27,38 @@ import org.apache.commons.math3.stat.regression.SimpleRegression;
 
 public class DataSalter {
 
-    /** Reads "X,Y" CSV into List<double[]>; skips header if present. */
+    /** Reads "X,Y" CSV into List<double[]> via the shared XYCsvReader. */
     public static List<double[]> readCSV(String file) {
-        List<double[]> pts = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            boolean first = true;
-            while ((line = br.readLine()) != null) {
-                if (first && line.toLowerCase().contains("x")) { first = false; continue; }
-                String[] parts = line.split(",");
-                if (parts.length < 2) continue;
-                pts.add(new double[] {
-                    Double.parseDouble(parts[0].trim()),
-                    Double.parseDouble(parts[1].trim())
-                });
-                first = false;
-            }
-        } catch (IOException ex) { ex.printStackTrace(); }
-        return pts;
+        try {
+            return XYCsvReader.read(file).toList();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            return new ArrayList<>();
+        }
     }
 
     /** Writes list of {x,y} to CSV with header. */
     public static void writeCSV(List<double[]> pts, String file) {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
-            pw.println("X,Y");
-            for (double[] p : pts) pw.println(p[0] + "," + p[1]);
+        try {
+            XYCsvWriter.write(pts, file);
             System.out.printf("CSV written: %s  (%d rows)%n", file, pts.size());
         } catch (IOException ex) { ex.printStackTrace(); }
     }
 
-    /** Returns a new list with y-values salted by uniform noise ±range. */
+    /** Returns a new list with y-values salted by uniform noise ±range (seed null = random). */
     public static List<double[]> salt(List<double[]> src, double range, Long seed) {
-        Random rng = (seed == null) ? new Random() : new Random(seed);
+        return salt(src, new NoiseModel.Uniform(range),
+                    seed == null ? NoiseGenerator.randomSeed() : seed);
+    }
+
+    /** Returns a new list salted by any NoiseModel; the same seed gives the same data (NoiseGenerator). */
+    public static List<double[]> salt(List<double[]> src, NoiseModel noise, long seed) {
+        double[] ys = new double[src.size()];
+        for (int i = 0; i < ys.length; i++) ys[i] = src.get(i)[1];
+        new NoiseGenerator(noise, seed).salt(ys, ys.length);
+
         List<double[]> out = new ArrayList<>(src.size());
-        for (double[] p : src) {
-            double noise = (rng.nextDouble() * 2 * range) - range; // (-range, +range)
-            out.add(new double[] { p[0], p[1] + noise });
-        }
+        for (int i = 0; i < ys.length; i++) out.add(new double[] { src.get(i)[0], ys[i] });
         return out;
     }
 
@@ -75,12 +66,12 @@ public class DataSalter {
     public static void showChart(List<double[]> original,
                                  List<double[]> salted,
                                  XYSeries regSeries,
-                                 double range) {
+                                 NoiseModel noise) {
 
         XYSeries rawSeries = new XYSeries("original");
         for (double[] p : original) rawSeries.add(p[0], p[1]);
 
-        XYSeries saltSeries = new XYSeries("salted (±" + range + ")");
+        XYSeries saltSeries = new XYSeries("salted (" + noise + ")");
         for (double[] p : salted) saltSeries.add(p[0], p[1]);
 
         XYSeriesCollection dataset = new XYSeriesCollection();
@@ -89,7 +80,7 @@ public class DataSalter {
         dataset.addSeries(regSeries);  // regression line
 
         JFreeChart chart = ChartFactory.createXYLineChart(
-                "Salted data ±" + range + " and linear fit",
+                "Salted data (" + noise + ") and linear fit",
                 "x",
                 "y",
                 dataset,
@@ -109,19 +100,23 @@ public class DataSalter {
         String inputCsv  = "plot_data.csv";   // clean data from DataPlotter
         String outputCsv = "salted_data.csv";
         double range     = 2.0;               // noise amplitude ±range
-        Long   seed      = null;              // RNG seed (null = random)
+        long   seed      = NoiseGenerator.randomSeed();   // RNG seed
+        String model     = "uniform";         // one of NoiseModel.NAMES
 
         /* CLI overrides */
         if (args.length >= 1) range = Double.parseDouble(args[0]);
         if (args.length >= 2) inputCsv = args[1];
         if (args.length >= 3) outputCsv = args[2];
         if (args.length >= 4) seed = Long.parseLong(args[3]);
+        if (args.length >= 5) model = args[4];
+        NoiseModel noise = NoiseModel.named(model, range);
 
         /* Load, salt, save */
         List<double[]> original = readCSV(inputCsv);
         if (original.isEmpty()) { System.err.println("No data in " + inputCsv); return; }
 
-        List<double[]> salted = salt(original, range, seed);
+        System.out.printf("Noise: %s, seed %d%n", noise, seed);
+        List<double[]> salted = salt(original, noise, seed);
         writeCSV(salted, outputCsv);
 
         /* Commons Math regression */
@@ -139,6 +134,6 @@ public class DataSalter {
         line.add(xMin, a + b * xMin);
         line.add(xMax, a + b * xMax);
 
-        showChart(original, salted, line, range);
+        showChart(original, salted, line, noise);
     }
 }
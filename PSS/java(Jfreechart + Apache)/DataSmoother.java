@@ -1,15 +1,13 @@
 /*
    DataSmoother.java
-   • Reads a CSV of (x, y)
+   • Reads a CSV of (x, y) (shared XYCsvReader from javaMain/Code)
    • Replaces each y with the average of neighbours inside ±window
+     (O(n) running sum from the shared MovingAverage kernel), or runs any
+     SmoothingFilter (median, Savitzky–Golay, LOESS, ...) instead
    • Exports smoothed points to smoothed_data.csv
    • Shows original vs. smoothed curves via JFreeChart
 */
 
-   import java.io.BufferedReader;
-   import java.io.FileReader;
-   import java.io.FileWriter;
-   import java.io.PrintWriter;
    import java.io.IOException;
    import java.util.ArrayList;
    import java.util.List;
@@ -26,69 +24,81 @@
    
    public class DataSmoother {
    
-       /** Reads "X,Y" CSV into List<double[]>; skips header row if present. */
+       /** Reads "X,Y" CSV into List<double[]> via the shared XYCsvReader. */
        public static List<double[]> readCSV(String file) {
-           List<double[]> pts = new ArrayList<>();
-           try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-               String line;
-               boolean first = true;
-               while ((line = br.readLine()) != null) {
-                   if (first && line.toLowerCase().contains("x")) { // header
-                       first = false;
-                       continue;
-                   }
-                   String[] parts = line.split(",");
-                   if (parts.length < 2) continue;
-                   pts.add(new double[] {
-                       Double.parseDouble(parts[0].trim()),
-                       Double.parseDouble(parts[1].trim())
-                   });
-                   first = false;
-               }
+           try {
+               return XYCsvReader.read(file).toList();
            } catch (IOException ex) {
                ex.printStackTrace();
+               return new ArrayList<>();
            }
-           return pts;
        }
    
        /** Writes list of {x,y} to CSV. */
        public static void writeCSV(List<double[]> pts, String file) {
-           try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
-               pw.println("X,Y");
-               for (double[] p : pts) pw.println(p[0] + "," + p[1]);
+           try {
+               XYCsvWriter.write(pts, file);
                System.out.printf("CSV written: %s  (%d rows)%n", file, pts.size());
            } catch (IOException ex) {
                ex.printStackTrace();
            }
        }
    
-       /** Returns a new list whose y-values are smoothed with window ±k. */
+       /** Returns a new list whose y-values are smoothed with window ±k (O(n), see MovingAverage). */
        public static List<double[]> smooth(List<double[]> src, int window) {
+           return smooth(src, window, false);
+       }
+   
+       /** parallel = true uses the fork/join kernel; output is bit-identical. */
+       public static List<double[]> smooth(List<double[]> src, int window, boolean parallel) {
            int n = src.size();
-           List<double[]> out = new ArrayList<>(n);
+           double[] y = new double[n];
+           for (int i = 0; i < n; i++) y[i] = src.get(i)[1];
    
-           for (int i = 0; i < n; i++) {
-               int left  = Math.max(0, i - window);
-               int right = Math.min(n - 1, i + window);
+           double[] avg = new double[n];
+           if (parallel) MovingAverage.smoothParallel(y, avg, n, window);
+           else          MovingAverage.smooth(y, avg, n, window);
    
-               double sum = 0;
-               for (int j = left; j <= right; j++) sum += src.get(j)[1];
-               double avg = sum / (right - left + 1);
+           List<double[]> out = new ArrayList<>(n);
+           for (int i = 0; i < n; i++) out.add(new double[] { src.get(i)[0], avg[i] });
+           return out;
+       }
    
-               out.add(new double[] { src.get(i)[0], avg });
+       /** Returns a new list whose y-values are smoothed by the given filter. */
+       public static List<double[]> smooth(List<double[]> src, SmoothingFilter filter) {
+           int n = src.size();
+           double[] x = new double[n], y = new double[n];
+           for (int i = 0; i < n; i++) {
+               x[i] = src.get(i)[0];
+               y[i] = src.get(i)[1];
            }
+
+           double[] smoothed = new double[n];
+           filter.apply(x, y, smoothed, n);
+
+           List<double[]> out = new ArrayList<>(n);
+           for (int i = 0; i < n; i++) out.add(new double[] { x[i], smoothed[i] });
            return out;
        }
-   
+
        /** Displays original & smoothed series in the same chart. */
        public static void showChart(List<double[]> original,
                                     List<double[]> smoothed,
                                     int window) {
+           showChart(original, smoothed, "Moving-average smoothing (window ±" + window + ")",
+                     "smoothed (±" + window + ")");
+       }
+
+       /** Same chart with a caller-supplied title and series label. */
+       public static void showChart(List<double[]> original,
+                                    List<double[]> smoothed,
+                                    String title,
+                                    String label) {
    
            XYSeries rawSeries = new XYSeries("original");
            for (double[] p : original) rawSeries.add(p[0], p[1]);
    
-           XYSeries smoothSeries = new XYSeries("smoothed (±" + window + ")");
+           XYSeries smoothSeries = new XYSeries(label);
            for (double[] p : smoothed) smoothSeries.add(p[0], p[1]);
    
            XYSeriesCollection dataset = new XYSeriesCollection();
@@ -96,7 +106,7 @@
            dataset.addSeries(smoothSeries);
    
            JFreeChart chart = ChartFactory.createXYLineChart(
-                   "Moving-average smoothing (window ±" + window + ")",
+                   title,
                    "x",
                    "y",
                    dataset,
@@ -120,11 +130,17 @@
            String inputCsv  = "plot_data.csv";      // produced by DataPlotter
            String outputCsv = "smoothed_data.csv";
            int    window    = 5;                    // ±5 points
+           boolean parallel = false;                // fork/join smoothing
+           String  filter   = "mean";               // see SmoothingFilter.NAMES
    
            // allow overrides from command-line
            if (args.length >= 1) window = Integer.parseInt(args[0]);
            if (args.length >= 2) inputCsv = args[1];
            if (args.length >= 3) outputCsv = args[2];
+           if (args.length >= 4) {                  // "parallel" or a filter name
+               parallel = args[3].equalsIgnoreCase("parallel");
+               if (!parallel) filter = args[3];
+           }
    
            List<double[]> original = readCSV(inputCsv);
            if (original.isEmpty()) {
@@ -132,7 +148,7 @@
                return;
            }
    
-           List<double[]> smoothed = smooth(original, window);
+           List<double[]> smoothed = smooth(original, window, parallel);
            writeCSV(smoothed, outputCsv);
    
            showChart(original, smoothed, window);
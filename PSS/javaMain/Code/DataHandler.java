@@ -1,6 +1,21 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 public class DataHandler {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 1 && args[0].equalsIgnoreCase("fused")) {
+            runFused(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length >= 1 && args[0].equalsIgnoreCase("sweep")) {
+            // Monte-Carlo salt/smooth parameter sweep; see MonteCarloSweep for the arguments
+            MonteCarloSweep.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
         // 1) Generate the original data
         //    Calls the PlotFunction class, which should produce "plot_data.csv"
         System.out.println("===== Generating original data (PlotFunction) =====");
@@ -21,4 +36,57 @@ public class DataHandler {
         System.out.println("\nAll steps complete!");
         System.out.println("You should now have plot_data.csv, salted_data.csv, and smoothed_data.csv.");
     }
+
+    // In-memory pipeline: generate -> salt -> smooth over primitive columns,
+    // with no CSV written and re-parsed between the stages.  Only the files
+    // listed in [outputs] are written, each at the point its stage is done,
+    // so the salt can then overwrite Y in place (three arrays of n doubles
+    // in total: x, y and the smoothed y).
+    //
+    // Usage: DataHandler fused [step] [range] [window] [outputs] [filter] [format] [function] [noise] [seed]
+    //   step     x spacing over -10..10 (default 0.5; 1e-6 gives 20M points)
+    //   range    salt amplitude, Y +/- range (default 2.0)
+    //   window   smoothing half-width (default 5)
+    //   outputs  comma list of plot, salted, smoothed, or all / none (default all)
+    //   filter   "parallel" or one of SmoothingFilter.NAMES (default mean)
+    //   format   csv (default) or xyb, the binary columnar XYBinaryFormat
+    //   function y = f(x) as an Expression, e.g. "sin(x)/x" (default x^2)
+    //   noise    one of NoiseModel.NAMES, scaled by range (default uniform)
+    //   seed     salt seed; the same seed gives the same salted data (default random)
+    // Unlike the three-step run above (where Smoother reads plot_data.csv),
+    // the smoothed output here is always the smoothed salted data.
+    private static void runFused(String[] args) {
+        double step = args.length >= 1 ? Double.parseDouble(args[0]) : 0.5;
+        double range = args.length >= 2 ? Double.parseDouble(args[1]) : 2.0;
+        int window = args.length >= 3 ? Integer.parseInt(args[2]) : 5;
+        Set<String> outputs = new HashSet<>(Arrays.asList(
+                (args.length >= 4 ? args[3] : "all").toLowerCase().split(",")));
+        if (outputs.contains("all")) outputs.addAll(Arrays.asList("plot", "salted", "smoothed"));
+        String filterName = args.length >= 5 ? args[4] : "mean";
+        SmoothingFilter filter = filterName.equalsIgnoreCase("parallel")
+                ? new MovingAverageFilter(window, true)
+                : SmoothingFilter.named(filterName, window);
+        String ext = args.length >= 6 && args[5].equalsIgnoreCase("xyb") ? XYBinaryFormat.EXTENSION : ".csv";
+        NoiseModel noise = NoiseModel.named(args.length >= 8 ? args[7] : "uniform", range);
+        long seed = args.length >= 9 ? Long.parseLong(args[8]) : NoiseGenerator.randomSeed();
+
+        long t0 = System.nanoTime();
+        XYColumns data = args.length >= 7 ? PlotFunction.generate(args[6], -10.0, 10.0, step)
+                                          : PlotFunction.generate(-10.0, 10.0, step);
+        int n = data.size();
+        System.out.println("Generated " + n + " points.");
+        if (outputs.contains("plot")) PlotFunction.writeColumns(data, "plot_data" + ext);
+
+        System.out.println("Salting: " + noise + ", seed " + seed);
+        DataSalter.saltData(data, noise, seed);
+        if (outputs.contains("salted")) DataSalter.writeColumns(data, "salted_data" + ext);
+
+        double[] smoothed = new double[n];
+        filter.apply(data.xs(), data.ys(), smoothed, n);
+        if (outputs.contains("smoothed")) {
+            Smoother.writeColumns(new XYColumns(data.xs(), smoothed, n), "smoothed_data" + ext);
+        }
+
+        System.out.printf("Fused pipeline (%s) finished in %.1f ms.%n", filter, (System.nanoTime() - t0) / 1e6);
+    }
 }
@@ -1,90 +1,81 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.PrintWriter;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 public class DataSalter {
 
     // This method will read a CSV of "X,Y" data (with or without a header)
     // and store it as a List of double[].
+    // Parsing (header detection, malformed lines) is done by XYCsvReader.
     public static List<double[]> readXYFromCSV(String inputCsv) {
-        List<double[]> xyData = new ArrayList<>();
-
-        try (BufferedReader br = new BufferedReader(new FileReader(inputCsv))) {
-            String line;
-            boolean isHeader = true;
-
-            while ((line = br.readLine()) != null) {
-                // If the first line is a header, skip it and set flag to false.
-                if (isHeader) {
-                    // Try to detect if it's actually a header vs numeric data
-                    if (line.toLowerCase().contains("x") && line.toLowerCase().contains("y")) {
-                        // Skipping header
-                        isHeader = false;
-                        continue;
-                    }
-                    // If it's numeric data, we'll still process, but we only skip once
-                    isHeader = false;
-                }
-
-                // Split on comma
-                String[] parts = line.split(",");
-                if (parts.length < 2) {
-                    continue; // skip any malformed line
-                }
-
-                try {
-                    double x = Double.parseDouble(parts[0].trim());
-                    double y = Double.parseDouble(parts[1].trim());
-                    xyData.add(new double[]{x, y});
-                } catch (NumberFormatException e) {
-                    // If parsing fails, skip this line or handle error
-                    System.err.println("Skipping invalid numeric line: " + line);
-                }
-            }
+        return readColumnsFromCSV(inputCsv).toList();
+    }
+
+    // Same, but into primitive columns so no object is created per row.
+    public static XYColumns readColumnsFromCSV(String inputCsv) {
+        try {
+            return XYCsvReader.read(inputCsv);
         } catch (IOException e) {
             e.printStackTrace();
+            return new XYColumns();
         }
+    }
 
-        return xyData;
+    // Reads CSV, or the binary columnar format for a ".xyb" name.
+    public static XYColumns readColumns(String inputFile) {
+        try {
+            return XYFiles.read(inputFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new XYColumns();
+        }
     }
 
     // This method salts the Y-values in-place.
     // range is the maximum absolute salt. For example, range = 2.0 => random is in [-2, 2].
     // randomSalt can be positive or negative each time.
     public static void saltData(List<double[]> xyData, double range) {
-        Random random = new Random(); // new Random(seed) for reproducibility
-
-        for (double[] pair : xyData) {
-            double x = pair[0];
-            double y = pair[1];
+        saltData(xyData, new NoiseModel.Uniform(range), NoiseGenerator.randomSeed());
+    }
 
-            // Generate random double in [0, range), then shift it to [-range, range].
-            double salt = (random.nextDouble() * 2 * range) - range;
+    // Salts the Y-values in-place with any NoiseModel: Y is copied out,
+    // salted by NoiseGenerator and written back, so a seed gives the same
+    // data as the XYColumns overload.
+    public static void saltData(List<double[]> xyData, NoiseModel model, long seed) {
+        double[] ys = new double[xyData.size()];
+        int i = 0;
+        for (double[] pair : xyData) ys[i++] = pair[1];
+        new NoiseGenerator(model, seed).salt(ys, ys.length);
+        i = 0;
+        for (double[] pair : xyData) pair[1] = ys[i++];   // X stays the same
+    }
 
-            // Add or subtract from Y only (X stays the same)
-            double saltedY = y + salt;
+    // Salts the Y column in-place, same uniform noise as above, from a
+    // fresh random seed.
+    public static void saltData(XYColumns xyData, double range) {
+        saltData(xyData, new NoiseModel.Uniform(range), NoiseGenerator.randomSeed());
+    }
 
-            // Update the pair's Y value
-            pair[1] = saltedY;
-        }
+    // Salts the Y column in-place with any NoiseModel, in parallel chunks.
+    // The same seed always gives the same salted data (NoiseGenerator).
+    public static void saltData(XYColumns xyData, NoiseModel model, long seed) {
+        new NoiseGenerator(model, seed).salt(xyData.ys(), xyData.size());
     }
 
     // Write out the salted data to a new CSV file
     public static void writeXYToCSV(List<double[]> xyData, String outputCsv) {
-        try (FileWriter fw = new FileWriter(outputCsv);
-             PrintWriter pw = new PrintWriter(fw)) {
+        try {
+            XYCsvWriter.write(xyData, outputCsv);
 
-            // header
-            pw.println("X,Y");
+            System.out.println("Salted data has been written to " + outputCsv);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-            for (double[] pair : xyData) {
-                pw.println(pair[0] + "," + pair[1]);
-            }
+    // Write out salted columns to a new CSV file
+    public static void writeXYToCSV(XYColumns xyData, String outputCsv) {
+        try {
+            XYCsvWriter.write(xyData, outputCsv);
 
             System.out.println("Salted data has been written to " + outputCsv);
         } catch (IOException e) {
@@ -92,6 +83,20 @@ public class DataSalter {
         }
     }
 
+    // Writes CSV, or the binary columnar format for a ".xyb" name.
+    public static void writeColumns(XYColumns xyData, String outputFile) {
+        if (!XYFiles.isBinary(outputFile)) {
+            writeXYToCSV(xyData, outputFile);
+            return;
+        }
+        try {
+            XYFiles.write(xyData, outputFile);
+            System.out.println("Salted data has been written to " + outputFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     // Main method to tie it all together
     public static void main(String[] args) {
 
@@ -103,18 +108,28 @@ public class DataSalter {
         String inputCsv = "plot_data.csv";  // input
         String outputCsv = "salted_data.csv";   // output
         double range = 2.0;                     // Y will be salted by a random amount in [-2, 2]
+        String model = "uniform";               // or one of NoiseModel.NAMES
+        long seed = NoiseGenerator.randomSeed();
+
+        // Optional overrides: [input] [output] [range] [model] [seed]; ".xyb" files are binary
+        if (args.length >= 1) inputCsv = args[0];
+        if (args.length >= 2) outputCsv = args[1];
+        if (args.length >= 3) range = Double.parseDouble(args[2]);
+        if (args.length >= 4) model = args[3];
+        if (args.length >= 5) seed = Long.parseLong(args[4]);
+        NoiseModel noise = NoiseModel.named(model, range);
 
         // Step 1: Read data
-        List<double[]> xyData = readXYFromCSV(inputCsv);
+        XYColumns xyData = readColumns(inputCsv);
 
         System.out.println("Original data size: " + xyData.size());
-        System.out.println("Salting data...");
+        System.out.println("Salting data (" + noise + ", seed " + seed + ")...");
 
         // Step 2: Salt data
-        saltData(xyData, range);
+        saltData(xyData, noise, seed);
 
         // Step 3: Write salted data to a CSV
-        writeXYToCSV(xyData, outputCsv);
+        writeColumns(xyData, outputCsv);
 
         System.out.println("Done.");
     }
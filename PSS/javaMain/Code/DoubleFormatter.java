@@ -0,0 +1,406 @@
+import java.math.BigInteger;
+
+// Formats doubles as ASCII straight into a byte array, for XYCsvWriter.
+//
+// format() writes the shortest decimal that reads back as the same double
+// (Ryu, Ulf Adams 2018), in the layout Double.toString uses: plain notation
+// ("0.001", "123.5", "100.0") for 1e-3 <= |v| < 1e7, otherwise "1.25E-5" /
+// "1.0E10"; "NaN", "Infinity", "-0.0" as usual.  The output is therefore
+// the same text Double.toString gives, except that before JDK 19
+// Double.toString sometimes adds a 17th digit that is not needed; here it
+// is always the shortest.  No String, char[] or BigDecimal is created per
+// value.
+//
+// formatFixed() writes a fixed number of decimals in plain notation, with
+// the shortest digits rounded half-up, which is what String.format("%.nf")
+// gives too.
+//
+// The 128-bit powers of five Ryu multiplies by are computed once with
+// BigInteger when the class loads (~10 KB), instead of being pasted in as
+// a table.
+public final class DoubleFormatter {
+
+    // Longest output: "-2.2250738585072014E-308" is 24 bytes; fixed
+    // notation can be longer (see maxFixedLength).
+    public static final int MAX_LENGTH = 24;
+
+    private static final int MANTISSA_BITS = 52;
+    private static final int EXPONENT_BITS = 11;
+    private static final int BIAS = 1023;
+
+    private static final int POW5_BITCOUNT = 125;
+    private static final int POW5_INV_BITCOUNT = 125;
+    private static final int POW5_TABLE_SIZE = 326;
+    private static final int POW5_INV_TABLE_SIZE = 342;
+
+    // [i][0] = low 64 bits, [i][1] = high bits of the 125-bit multipliers.
+    private static final long[][] POW5_SPLIT = new long[POW5_TABLE_SIZE][2];
+    private static final long[][] POW5_INV_SPLIT = new long[POW5_INV_TABLE_SIZE][2];
+
+    static {
+        BigInteger mask64 = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        for (int i = 0; i < POW5_INV_TABLE_SIZE; i++) {
+            BigInteger pow = BigInteger.valueOf(5).pow(i);
+            int pow5len = pow.bitLength();
+            if (i < POW5_TABLE_SIZE) {
+                // Top POW5_BITCOUNT bits of 5^i.
+                BigInteger split = pow5len > POW5_BITCOUNT ? pow.shiftRight(pow5len - POW5_BITCOUNT)
+                                                           : pow.shiftLeft(POW5_BITCOUNT - pow5len);
+                POW5_SPLIT[i][0] = split.and(mask64).longValue();
+                POW5_SPLIT[i][1] = split.shiftRight(64).longValue();
+            }
+            // floor(2^j / 5^i) + 1, j = bits(5^i) - 1 + POW5_INV_BITCOUNT.
+            BigInteger inv = BigInteger.ONE.shiftLeft(pow5len - 1 + POW5_INV_BITCOUNT).divide(pow).add(BigInteger.ONE);
+            POW5_INV_SPLIT[i][0] = inv.and(mask64).longValue();
+            POW5_INV_SPLIT[i][1] = inv.shiftRight(64).longValue();
+        }
+    }
+
+    private static final byte[] DIGIT_PAIRS = new byte[200];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_PAIRS[2 * i] = (byte) ('0' + i / 10);
+            DIGIT_PAIRS[2 * i + 1] = (byte) ('0' + i % 10);
+        }
+    }
+
+    private static final byte[] NAN = {'N', 'a', 'N'};
+    private static final byte[] INFINITY = {'I', 'n', 'f', 'i', 'n', 'i', 't', 'y'};
+
+    private DoubleFormatter() { }
+
+    // Writes v at buf[pos] and returns the position after it.  buf needs
+    // MAX_LENGTH bytes of room.
+    public static int format(double v, byte[] buf, int pos) {
+        long bits = Double.doubleToRawLongBits(v);
+        boolean sign = bits < 0;
+        long ieeeMantissa = bits & ((1L << MANTISSA_BITS) - 1);
+        int ieeeExponent = (int) ((bits >>> MANTISSA_BITS) & ((1 << EXPONENT_BITS) - 1));
+
+        if (ieeeExponent == (1 << EXPONENT_BITS) - 1) {
+            if (ieeeMantissa != 0) return put(NAN, buf, pos);
+            if (sign) buf[pos++] = '-';
+            return put(INFINITY, buf, pos);
+        }
+        if (sign) buf[pos++] = '-';
+        if (ieeeExponent == 0 && ieeeMantissa == 0) {
+            buf[pos] = '0';
+            buf[pos + 1] = '.';
+            buf[pos + 2] = '0';
+            return pos + 3;
+        }
+
+        long decimal = shortest(ieeeMantissa, ieeeExponent);
+        long digits = decimal >>> 6;          // see shortest() for the packing
+        int exp10 = baseExponent(ieeeExponent) + (int) (decimal & 63);
+        int len = decimalLength(digits);
+        int sciExp = exp10 + len - 1;         // value = d.ddd * 10^sciExp
+
+        if (sciExp >= -3 && sciExp < 7) {
+            return plain(digits, len, sciExp, buf, pos);
+        }
+        // d.dddE[-]n
+        writeDigits(digits, len, buf, pos + 1);
+        buf[pos] = buf[pos + 1];
+        buf[pos + 1] = '.';
+        pos += len + 1;
+        if (len == 1) buf[pos++] = '0';
+        buf[pos++] = 'E';
+        if (sciExp < 0) {
+            buf[pos++] = '-';
+            sciExp = -sciExp;
+        }
+        if (sciExp >= 100) {
+            buf[pos++] = (byte) ('0' + sciExp / 100);
+            sciExp %= 100;
+            buf[pos++] = DIGIT_PAIRS[2 * sciExp];
+            buf[pos++] = DIGIT_PAIRS[2 * sciExp + 1];
+        } else if (sciExp >= 10) {
+            buf[pos++] = DIGIT_PAIRS[2 * sciExp];
+            buf[pos++] = DIGIT_PAIRS[2 * sciExp + 1];
+        } else {
+            buf[pos++] = (byte) ('0' + sciExp);
+        }
+        return pos;
+    }
+
+    // Room formatFixed needs for a value: sign, up to 309 integer digits,
+    // the point and the decimals.
+    public static int maxFixedLength(int decimals) {
+        return 311 + decimals;
+    }
+
+    // Writes v with exactly `decimals` digits after the point (none and no
+    // point for 0), plain notation.  NaN / Infinity are written as words.
+    public static int formatFixed(double v, int decimals, byte[] buf, int pos) {
+        if (decimals < 0) throw new IllegalArgumentException("decimals must be >= 0");
+        if (!Double.isFinite(v)) return format(v, buf, pos);
+        long bits = Double.doubleToRawLongBits(v);
+        if (bits < 0) buf[pos++] = '-';     // kept for "-0.00", like %f
+        long ieeeMantissa = bits & ((1L << MANTISSA_BITS) - 1);
+        int ieeeExponent = (int) ((bits >>> MANTISSA_BITS) & ((1 << EXPONENT_BITS) - 1));
+
+        long digits = 0;
+        int exp10 = 0;
+        if (ieeeExponent != 0 || ieeeMantissa != 0) {
+            long decimal = shortest(ieeeMantissa, ieeeExponent);
+            digits = decimal >>> 6;
+            exp10 = baseExponent(ieeeExponent) + (int) (decimal & 63);
+        }
+        // Drop the digits past the requested decimals, rounding half-up.
+        if (exp10 < -decimals) {
+            int drop = -decimals - exp10;
+            int len = decimalLength(digits);
+            if (drop > len) {
+                digits = 0;
+            } else {
+                long p = pow10(drop - 1);
+                long q = digits / p;
+                digits = q / 10 + (q % 10 >= 5 ? 1 : 0);
+            }
+            exp10 = -decimals;
+        }
+
+        // digits * 10^exp10 with exp10 >= -decimals.
+        int len = digits == 0 ? 1 : decimalLength(digits);
+        int intDigits = len + exp10;                      // digits before the point
+        if (intDigits <= 0) {
+            buf[pos++] = '0';
+        } else if (exp10 >= 0) {
+            writeDigits(digits, len, buf, pos);
+            pos += len;
+            for (int i = 0; i < exp10; i++) buf[pos++] = '0';
+        } else {
+            writeDigits(digits / pow10(-exp10), intDigits, buf, pos);
+            pos += intDigits;
+        }
+        if (decimals == 0) return pos;
+        buf[pos++] = '.';
+        int written = 0;
+        if (exp10 < 0) {
+            // Leading zeros after the point, then the fractional digits.
+            int fracDigits = -exp10;
+            int shown = Math.min(len, fracDigits);
+            for (int i = 0; i < fracDigits - shown; i++) buf[pos++] = '0';
+            writeDigits(digits % pow10(shown), shown, buf, pos);
+            pos += shown;
+            written = fracDigits;
+        }
+        for (; written < decimals; written++) buf[pos++] = '0';
+        return pos;
+    }
+
+    // Double.toString layout without the exponent: at least one digit on
+    // each side of the point.
+    private static int plain(long digits, int len, int sciExp, byte[] buf, int pos) {
+        if (sciExp < 0) {
+            buf[pos++] = '0';
+            buf[pos++] = '.';
+            for (int i = -1; i > sciExp; i--) buf[pos++] = '0';
+            writeDigits(digits, len, buf, pos);
+            return pos + len;
+        }
+        int intDigits = sciExp + 1;
+        if (len <= intDigits) {
+            writeDigits(digits, len, buf, pos);
+            pos += len;
+            for (int i = len; i < intDigits; i++) buf[pos++] = '0';
+            buf[pos++] = '.';
+            buf[pos++] = '0';
+            return pos;
+        }
+        // Write all digits one place right, then pull the integer part left.
+        writeDigits(digits, len, buf, pos + 1);
+        System.arraycopy(buf, pos + 1, buf, pos, intDigits);
+        buf[pos + intDigits] = '.';
+        return pos + len + 1;
+    }
+
+    // Ryu: the shortest digits d and exponent e with d * 10^e inside the
+    // rounding interval of the double (ties to even).  d has at most 17
+    // digits (< 2^57), so it is returned packed with the number of digits
+    // removed, d << 6 | removed; e = baseExponent + removed.
+    private static long shortest(long ieeeMantissa, int ieeeExponent) {
+        int e2;
+        long m2;
+        if (ieeeExponent == 0) {
+            e2 = 1 - BIAS - MANTISSA_BITS - 2;
+            m2 = ieeeMantissa;
+        } else {
+            e2 = ieeeExponent - BIAS - MANTISSA_BITS - 2;
+            m2 = (1L << MANTISSA_BITS) | ieeeMantissa;
+        }
+        boolean acceptBounds = (m2 & 1) == 0;
+
+        // The interval is [mm, mp] around mv = 4 * m2, all scaled by 2^e2.
+        long mv = 4 * m2;
+        int mmShift = (ieeeMantissa != 0 || ieeeExponent <= 1) ? 1 : 0;
+
+        long vr, vp, vm;
+        int e10;
+        boolean vmIsTrailingZeros = false, vrIsTrailingZeros = false;
+        if (e2 >= 0) {
+            int q = log10Pow2(e2) - (e2 > 3 ? 1 : 0);
+            e10 = q;
+            int k = POW5_INV_BITCOUNT + pow5bits(q) - 1;
+            int i = -e2 + q + k;
+            long[] mul = POW5_INV_SPLIT[q];
+            vr = mulShift(4 * m2, mul, i);
+            vp = mulShift(4 * m2 + 2, mul, i);
+            vm = mulShift(4 * m2 - 1 - mmShift, mul, i);
+            if (q <= 21) {
+                // Only one of mp, mv, mm can be a multiple of 5, if any.
+                if (mv % 5 == 0) {
+                    vrIsTrailingZeros = multipleOfPowerOf5(mv, q);
+                } else if (acceptBounds) {
+                    vmIsTrailingZeros = multipleOfPowerOf5(mv - 1 - mmShift, q);
+                } else if (multipleOfPowerOf5(mv + 2, q)) {
+                    vp--;
+                }
+            }
+        } else {
+            int q = log10Pow5(-e2) - (-e2 > 1 ? 1 : 0);
+            e10 = q + e2;
+            int i = -e2 - q;
+            int k = pow5bits(i) - POW5_BITCOUNT;
+            int j = q - k;
+            long[] mul = POW5_SPLIT[i];
+            vr = mulShift(4 * m2, mul, j);
+            vp = mulShift(4 * m2 + 2, mul, j);
+            vm = mulShift(4 * m2 - 1 - mmShift, mul, j);
+            if (q <= 1) {
+                // mv has at least q trailing zero bits, so vr is exact.
+                vrIsTrailingZeros = true;
+                if (acceptBounds) vmIsTrailingZeros = mmShift == 1;
+                else              vp--;
+            } else if (q < 63) {
+                vrIsTrailingZeros = (mv & ((1L << q) - 1)) == 0;
+            }
+        }
+
+        // Remove digits while the interval still holds a shorter number.
+        int removed = 0;
+        long output;
+        if (vmIsTrailingZeros || vrIsTrailingZeros) {
+            int lastRemovedDigit = 0;
+            while (vp / 10 > vm / 10) {
+                vmIsTrailingZeros &= vm % 10 == 0;
+                vrIsTrailingZeros &= lastRemovedDigit == 0;
+                lastRemovedDigit = (int) (vr % 10);
+                vr /= 10;
+                vp /= 10;
+                vm /= 10;
+                removed++;
+            }
+            if (vmIsTrailingZeros) {
+                while (vm % 10 == 0) {
+                    vrIsTrailingZeros &= lastRemovedDigit == 0;
+                    lastRemovedDigit = (int) (vr % 10);
+                    vr /= 10;
+                    vp /= 10;
+                    vm /= 10;
+                    removed++;
+                }
+            }
+            if (vrIsTrailingZeros && lastRemovedDigit == 5 && vr % 2 == 0) {
+                lastRemovedDigit = 4;       // exactly halfway: round to even
+            }
+            output = vr + ((vr == vm && (!acceptBounds || !vmIsTrailingZeros)) || lastRemovedDigit >= 5 ? 1 : 0);
+        } else {
+            // Common case (~99.3%): no trailing-zero bookkeeping needed.
+            boolean roundUp = false;
+            if (vp / 100 > vm / 100) {
+                roundUp = vr % 100 >= 50;
+                vr /= 100;
+                vp /= 100;
+                vm /= 100;
+                removed += 2;
+            }
+            while (vp / 10 > vm / 10) {
+                roundUp = vr % 10 >= 5;
+                vr /= 10;
+                vp /= 10;
+                vm /= 10;
+                removed++;
+            }
+            output = vr + (vr == vm || roundUp ? 1 : 0);
+        }
+        return output << 6 | removed;
+    }
+
+    // The e10 shortest() starts from, before any digits are removed.
+    private static int baseExponent(int ieeeExponent) {
+        int e2 = (ieeeExponent == 0 ? 1 : ieeeExponent) - BIAS - MANTISSA_BITS - 2;
+        return e2 >= 0 ? log10Pow2(e2) - (e2 > 3 ? 1 : 0)
+                       : log10Pow5(-e2) - (-e2 > 1 ? 1 : 0) + e2;
+    }
+
+    // (m * mul) >> j for the 125-bit multiplier mul, j >= 64.
+    private static long mulShift(long m, long[] mul, int j) {
+        long high0 = unsignedMultiplyHigh(m, mul[0]);
+        long low1 = m * mul[1];
+        long high1 = unsignedMultiplyHigh(m, mul[1]);
+        long sumLow = low1 + high0;
+        long sumHigh = high1 + (Long.compareUnsigned(sumLow, low1) < 0 ? 1 : 0);
+        int shift = j - 64;
+        return shift == 0 ? sumLow : (sumLow >>> shift) | (sumHigh << (64 - shift));
+    }
+
+    // Math.unsignedMultiplyHigh only arrived in JDK 18.
+    private static long unsignedMultiplyHigh(long a, long b) {
+        return Math.multiplyHigh(a, b) + ((a >> 63) & b) + ((b >> 63) & a);
+    }
+
+    private static int pow5bits(int e) {
+        return ((e * 1217359) >>> 19) + 1;
+    }
+
+    private static int log10Pow2(int e) {
+        return (e * 78913) >>> 18;
+    }
+
+    private static int log10Pow5(int e) {
+        return (e * 732923) >>> 20;
+    }
+
+    private static boolean multipleOfPowerOf5(long value, int q) {
+        int count = 0;
+        while (value > 0 && value % 5 == 0) {
+            value /= 5;
+            count++;
+        }
+        return count >= q;
+    }
+
+    private static int decimalLength(long v) {
+        long p = 10;
+        for (int len = 1; len < 19; len++, p *= 10) {
+            if (v < p) return len;
+        }
+        return 19;
+    }
+
+    private static long pow10(int n) {
+        long p = 1;
+        for (int i = 0; i < n; i++) p *= 10;
+        return p;
+    }
+
+    // Writes the len decimal digits of v (zero-padded on the left) at buf[pos].
+    private static void writeDigits(long v, int len, byte[] buf, int pos) {
+        int i = pos + len;
+        while (i - pos >= 2) {
+            int pair = (int) (v % 100);
+            v /= 100;
+            buf[--i] = DIGIT_PAIRS[2 * pair + 1];
+            buf[--i] = DIGIT_PAIRS[2 * pair];
+        }
+        if (i > pos) buf[--i] = (byte) ('0' + v % 10);
+    }
+
+    private static int put(byte[] word, byte[] buf, int pos) {
+        System.arraycopy(word, 0, buf, pos, word.length);
+        return pos + word.length;
+    }
+}
@@ -0,0 +1,51 @@
+// Exponential moving average: s[i] = s[i-1] + alpha * (y[i] - s[i-1]).
+//
+// One pass, O(n), no window to keep.  A plain EMA lags the signal, so with
+// zeroPhase = true the filter is run forward and then backward over the
+// forward result (like filtfilt), which cancels the lag at the cost of a
+// second pass.  Each pass starts from the first sample it sees.
+//
+// NaN samples are passed through as NaN and do not touch the running state,
+// so one missing value does not wipe out everything after it.
+public class ExponentialFilter implements SmoothingFilter {
+
+    private final double alpha;
+    private final boolean zeroPhase;
+
+    public ExponentialFilter(double alpha, boolean zeroPhase) {
+        if (!(alpha > 0 && alpha <= 1)) throw new IllegalArgumentException("alpha must be in (0, 1]");
+        this.alpha = alpha;
+        this.zeroPhase = zeroPhase;
+    }
+
+    @Override
+    public void apply(double[] x, double[] y, double[] out, int n) {
+        if (y == out) throw new IllegalArgumentException("out must be a separate array");
+        if (y.length < n || out.length < n) throw new IllegalArgumentException("arrays shorter than n");
+
+        double s = Double.NaN;
+        for (int i = 0; i < n; i++) {
+            double v = y[i];
+            if (v != v) {
+                out[i] = v;
+                continue;
+            }
+            s = (s != s) ? v : s + alpha * (v - s);
+            out[i] = s;
+        }
+        if (!zeroPhase) return;
+
+        s = Double.NaN;
+        for (int i = n - 1; i >= 0; i--) {
+            double v = out[i];
+            if (v != v) continue;
+            s = (s != s) ? v : s + alpha * (v - s);
+            out[i] = s;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return (zeroPhase ? "zero-phase " : "") + "EMA (alpha " + alpha + ")";
+    }
+}
@@ -0,0 +1,142 @@
+import java.util.Arrays;
+
+// Robust LOESS (Cleveland's LOWESS): every point is replaced by the value of
+// a weighted straight-line fit through its span nearest neighbours in x.
+//
+// Neighbour weights are tricube, (1 - (d/h)^3)^3, where h is the distance to
+// the farthest of the span neighbours stretched by (span+1)/span so that
+// point still counts a little (with h exactly that distance, a 3-point span
+// would give both neighbours weight zero and do nothing).  After the first
+// fit, each robustness iteration down-weights points by the bisquare of
+// their residual over 6 * median |residual|, so outliers and spikes stop
+// dragging the curve while genuine steps are followed.
+//
+// x must be non-decreasing (as PlotFunction writes it); the neighbourhood is
+// then a window that only slides right, found in O(1) amortised per point.
+// Each pass costs O(n * span).  x == null means evenly spaced (x = index).
+// Non-finite y values get weight zero, so their points are filled in from
+// their neighbours instead of spreading NaN.
+public class LoessFilter implements SmoothingFilter {
+
+    public static final int DEFAULT_ITERATIONS = 3;
+
+    private final int span;
+    private final int iterations;
+
+    public LoessFilter(int span, int iterations) {
+        if (span < 1) throw new IllegalArgumentException("span must be >= 1");
+        if (iterations < 0) throw new IllegalArgumentException("iterations must be >= 0");
+        this.span = span;
+        this.iterations = iterations;
+    }
+
+    @Override
+    public void apply(double[] x, double[] y, double[] out, int n) {
+        if (y == out) throw new IllegalArgumentException("out must be a separate array");
+        if (y.length < n || out.length < n || (x != null && x.length < n)) {
+            throw new IllegalArgumentException("arrays shorter than n");
+        }
+        if (x == null) {
+            x = new double[n];
+            for (int i = 0; i < n; i++) x[i] = i;
+        }
+        for (int i = 1; i < n; i++) {
+            if (!(x[i] >= x[i - 1])) throw new IllegalArgumentException("x must be non-decreasing (index " + i + ")");
+        }
+        if (n == 0) return;
+
+        double[] robust = new double[n];
+        for (int i = 0; i < n; i++) robust[i] = Double.isFinite(y[i]) ? 1 : 0;
+        double[] residuals = new double[n];
+
+        fit(x, y, robust, out, n);
+        for (int iter = 0; iter < iterations; iter++) {
+            int m = 0;
+            for (int i = 0; i < n; i++) {
+                if (Double.isFinite(y[i])) residuals[m++] = Math.abs(y[i] - out[i]);
+            }
+            if (m == 0) break;
+            Arrays.sort(residuals, 0, m);
+            double median = (m & 1) == 1 ? residuals[m / 2] : 0.5 * (residuals[m / 2 - 1] + residuals[m / 2]);
+            // Floor the scale relative to the data so an almost exact fit
+            // (median residual ~ rounding error) still rejects outliers
+            // rather than every point.
+            double scale = Math.max(6 * median, 1e-7 * meanAbs(y, n));
+            if (scale == 0) break;             // all zero: nothing to fit
+            for (int i = 0; i < n; i++) {
+                if (!Double.isFinite(y[i])) continue;
+                double u = (y[i] - out[i]) / scale;
+                robust[i] = Math.abs(u) < 1 ? (1 - u * u) * (1 - u * u) : 0;
+            }
+            fit(x, y, robust, out, n);
+        }
+    }
+
+    private static double meanAbs(double[] y, int n) {
+        double sum = 0;
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            if (Double.isFinite(y[i])) { sum += Math.abs(y[i]); m++; }
+        }
+        return m == 0 ? 0 : sum / m;
+    }
+
+    // One weighted local-linear pass with the given robustness weights.
+    private void fit(double[] x, double[] y, double[] robust, double[] out, int n) {
+        int k = Math.min(span, n);
+        double stretch = (k + 1.0) / k;
+        int left = 0;
+        for (int i = 0; i < n; i++) {
+            double xi = x[i];
+            // Slide [left, left + k) right while that brings it closer to xi.
+            while (left + k < n && xi - x[left] > x[left + k] - xi) left++;
+            int lo = left, hi = left + k - 1;
+
+            // If the robustness weights emptied the neighbourhood (a spike
+            // wider than the span drags every fit in it), widen it to the
+            // nearest points that still carry weight instead of echoing y[i].
+            int weighted = 0;
+            for (int j = lo; j <= hi && weighted < 2; j++) if (robust[j] > 0) weighted++;
+            while (weighted < Math.min(2, k) && (lo > 0 || hi < n - 1)) {
+                int j = hi == n - 1 || (lo > 0 && xi - x[lo - 1] <= x[hi + 1] - xi) ? --lo : ++hi;
+                if (robust[j] > 0) weighted++;
+            }
+            out[i] = fitAt(x, y, robust, xi, lo, hi, stretch);
+        }
+    }
+
+    // Weighted straight line through points lo..hi, evaluated at xi.  Sums
+    // are taken about xi, so the fitted value is the intercept.
+    private static double fitAt(double[] x, double[] y, double[] robust, double xi,
+                                int lo, int hi, double stretch) {
+        double h = Math.max(xi - x[lo], x[hi] - xi) * stretch;
+        double sw = 0, swx = 0, swy = 0, swxx = 0, swxy = 0;
+        for (int j = lo; j <= hi; j++) {
+            double w = robust[j];
+            if (w == 0) continue;
+            double dx = x[j] - xi;
+            if (h > 0) {
+                double u = Math.abs(dx) / h;
+                double t = 1 - u * u * u;
+                w *= t * t * t;
+            }
+            sw += w;
+            swx += w * dx;
+            swy += w * y[j];
+            swxx += w * dx * dx;
+            swxy += w * dx * y[j];
+        }
+        if (sw == 0) return Double.NaN;            // no finite y at all
+        double denom = sw * swxx - swx * swx;
+        if (denom <= 1e-12 * sw * swxx || denom == 0) {
+            return swy / sw;                       // no spread in x: weighted mean
+        }
+        double slope = (sw * swxy - swx * swy) / denom;
+        return (swy - slope * swx) / sw;
+    }
+
+    @Override
+    public String toString() {
+        return "LOESS (span " + span + ", " + iterations + " robustness iterations)";
+    }
+}
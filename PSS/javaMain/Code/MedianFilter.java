@@ -0,0 +1,141 @@
+// Running median over y[i-window .. i+window] (shrinking at the ends, like
+// the moving average).  A median ignores isolated spikes and keeps steps
+// sharp, where an average smears both into their neighbours.
+//
+// The window is kept in two indexed binary heaps: a max-heap holding the
+// lower half and a min-heap holding the upper half (never more than one
+// element larger), so the median is read off the heap tops.  Samples live in
+// a ring of 2*window+1 slots and every slot remembers its heap position, so
+// the sample leaving the window is removed directly instead of searched for.
+// Each step is one removal and one insertion: O(log window) per point,
+// instead of the O(window log window) of sorting every window.
+//
+// Ordering is Double.compare's, so NaN sorts above +Infinity (as in
+// Arrays.sort).  An even-sized window at the ends gives the mean of the two
+// middle values.
+public class MedianFilter implements SmoothingFilter {
+
+    private final int window;
+
+    public MedianFilter(int window) {
+        if (window < 0) throw new IllegalArgumentException("window must be >= 0");
+        this.window = window;
+    }
+
+    @Override
+    public void apply(double[] x, double[] y, double[] out, int n) {
+        if (y == out) throw new IllegalArgumentException("out must be a separate array");
+        if (y.length < n || out.length < n) throw new IllegalArgumentException("arrays shorter than n");
+        if (n == 0) return;
+
+        int cap = (int) Math.min((long) 2 * window + 1, n);
+        Window w = new Window(cap);
+        int right = (int) Math.min(n - 1, (long) window);
+        for (int j = 0; j <= right; j++) w.add(j % cap, y[j]);
+
+        for (int i = 0; i < n; i++) {
+            out[i] = w.median();
+            // Remove before adding: with a full ring both use the same slot.
+            if (i - window >= 0) w.remove((i - window) % cap);
+            long next = (long) i + window + 1;
+            if (next < n) w.add((int) (next % cap), y[(int) next]);
+        }
+    }
+
+    // Two heaps of ring slots.  where[slot] is the slot's position in lo
+    // (>= 0) or the complement of its position in hi (< 0).
+    private static final class Window {
+        private final double[] val;
+        private final int[] lo, hi, where;
+        private int nLo, nHi;
+
+        Window(int cap) {
+            val = new double[cap];
+            lo = new int[cap];
+            hi = new int[cap];
+            where = new int[cap];
+        }
+
+        void add(int slot, double v) {
+            val[slot] = v;
+            push(nLo == 0 || Double.compare(v, val[lo[0]]) <= 0, slot);
+            rebalance();
+        }
+
+        void remove(int slot) {
+            int p = where[slot];
+            if (p >= 0) removeAt(true, p);
+            else        removeAt(false, ~p);
+            rebalance();
+        }
+
+        double median() {
+            return nLo > nHi ? val[lo[0]] : 0.5 * val[lo[0]] + 0.5 * val[hi[0]];
+        }
+
+        // Keeps nLo == nHi or nLo == nHi + 1.
+        private void rebalance() {
+            while (nLo > nHi + 1) push(false, removeAt(true, 0));
+            while (nHi > nLo)     push(true, removeAt(false, 0));
+        }
+
+        // True if slot a belongs above slot b (lo is a max-heap, hi a min-heap).
+        private boolean above(boolean isLo, int a, int b) {
+            int c = Double.compare(val[a], val[b]);
+            return isLo ? c > 0 : c < 0;
+        }
+
+        private void place(boolean isLo, int p, int slot) {
+            if (isLo) { lo[p] = slot; where[slot] = p; }
+            else      { hi[p] = slot; where[slot] = ~p; }
+        }
+
+        private void push(boolean isLo, int slot) {
+            int p = isLo ? nLo++ : nHi++;
+            siftUp(isLo, p, slot);
+        }
+
+        // Removes the element at heap position p and returns its slot.
+        private int removeAt(boolean isLo, int p) {
+            int[] h = isLo ? lo : hi;
+            int removed = h[p];
+            int last = isLo ? --nLo : --nHi;
+            if (p != last) {
+                int moved = h[last];
+                if (above(isLo, moved, removed)) siftUp(isLo, p, moved);
+                else                             siftDown(isLo, p, moved);
+            }
+            return removed;
+        }
+
+        private void siftUp(boolean isLo, int p, int slot) {
+            int[] h = isLo ? lo : hi;
+            while (p > 0) {
+                int parent = (p - 1) >>> 1;
+                if (!above(isLo, slot, h[parent])) break;
+                place(isLo, p, h[parent]);
+                p = parent;
+            }
+            place(isLo, p, slot);
+        }
+
+        private void siftDown(boolean isLo, int p, int slot) {
+            int[] h = isLo ? lo : hi;
+            int size = isLo ? nLo : nHi;
+            while (true) {
+                int c = 2 * p + 1;
+                if (c >= size) break;
+                if (c + 1 < size && above(isLo, h[c + 1], h[c])) c++;
+                if (!above(isLo, h[c], slot)) break;
+                place(isLo, p, h[c]);
+                p = c;
+            }
+            place(isLo, p, slot);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "running median (+/-" + window + ")";
+    }
+}
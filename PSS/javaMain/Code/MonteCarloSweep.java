@@ -0,0 +1,288 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Monte-Carlo parameter sweep for the salt -> smooth pipeline, all in memory.
+//
+// The clean curve is sampled once from an Expression (x^2 by default, the
+// same points PlotFunction writes).  Every trial of every (noise model,
+// range) pair salts a copy of it with its own seed, then runs every
+// (filter, window) over that same salted copy and scores the result against
+// the clean curve (RMSE and MAE).  Sharing the salted copy means all filters
+// in a trial face identical noise, so their differences are not blurred by
+// luck of the draw, and the salt is paid for once per trial instead of once
+// per filter.
+//
+// Trials run in parallel on the common ForkJoinPool.  Trial t always uses
+// the t-th seed derived from the base seed, and every score goes to its own
+// slot before the averages are taken, so the table is the same for a given
+// base seed however many threads run it.
+//
+// The result is one summary table (stdout, and optionally a CSV file): per
+// configuration the mean and standard deviation of RMSE and MAE over the
+// trials, and "gain", the raw salted RMSE divided by the smoothed RMSE.
+// The best filter/window for each noise/range is marked with '*'.  Points
+// where the clean curve is not finite (e.g. sin(x)/x at 0) are dropped
+// before anything is salted, so no filter window or EMA state ever sees
+// them; configurations that still score NaN are never marked best.
+public class MonteCarloSweep {
+
+    private final double[] xs, clean;
+    private final int n;
+    private final List<String> noises;
+    private final double[] ranges;
+    private final List<String> filters;
+    private final int[] windows;
+    private final int trials;
+    private final long seed;
+    // Built once; models and filters hold only settings, so trials share them.
+    private final NoiseModel[] models;
+    private final SmoothingFilter[] smoothers;
+
+    // Per (noise, range) "case": scores[case][config][trial], config being
+    // filter-major over (filter, window); raw[case][trial] is the salted RMSE.
+    private double[][][] rmse, mae;
+    private double[][] raw;
+
+    public MonteCarloSweep(XYColumns clean, List<String> noises, double[] ranges,
+                           List<String> filters, int[] windows, int trials, long seed) {
+        if (trials < 1) throw new IllegalArgumentException("trials must be >= 1");
+        double[] x = clean.xs(), y = clean.ys();
+        double[] keptX = new double[clean.size()], keptY = new double[clean.size()];
+        int kept = 0;
+        for (int i = 0; i < clean.size(); i++) {
+            if (!Double.isFinite(y[i])) continue;
+            keptX[kept] = x[i];
+            keptY[kept] = y[i];
+            kept++;
+        }
+        if (kept == 0) throw new IllegalArgumentException("the clean curve has no finite points");
+        this.xs = Arrays.copyOf(keptX, kept);
+        this.clean = Arrays.copyOf(keptY, kept);
+        this.n = kept;
+        this.noises = noises;
+        this.ranges = ranges;
+        this.filters = filters;
+        this.windows = windows;
+        this.trials = trials;
+        this.seed = seed;
+        this.models = new NoiseModel[cases()];
+        for (int c = 0; c < models.length; c++) {
+            models[c] = NoiseModel.named(noises.get(c / ranges.length), ranges[c % ranges.length]);
+        }
+        this.smoothers = new SmoothingFilter[configs()];
+        for (int k = 0; k < smoothers.length; k++) {
+            smoothers[k] = SmoothingFilter.named(filters.get(k / windows.length), windows[k % windows.length]);
+        }
+    }
+
+    private int cases() { return noises.size() * ranges.length; }
+
+    private int configs() { return filters.size() * windows.length; }
+
+    public void run() {
+        rmse = new double[cases()][configs()][trials];
+        mae = new double[cases()][configs()][trials];
+        raw = new double[cases()][trials];
+        long[] trialSeeds = new long[trials];
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for (int t = 0; t < trials; t++) trialSeeds[t] = seeds.nextLong();
+        ForkJoinPool.commonPool().invoke(new TrialTask(trialSeeds, 0, cases() * trials));
+    }
+
+    private final class TrialTask extends RecursiveAction {
+        private final long[] trialSeeds;
+        private final int from, to;
+
+        TrialTask(long[] trialSeeds, int from, int to) {
+            this.trialSeeds = trialSeeds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                runTrial(from / trials, from % trials, trialSeeds[from % trials]);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new TrialTask(trialSeeds, from, mid), new TrialTask(trialSeeds, mid, to));
+        }
+    }
+
+    // One salted copy, scored raw and after every filter/window.
+    private void runTrial(int c, int trial, long trialSeed) {
+        double[] salted = Arrays.copyOf(clean, n);
+        new NoiseGenerator(models[c], trialSeed).salt(salted, n);
+        double[] smoothed = new double[n];
+        double[] err = new double[2];
+
+        score(salted, err);
+        raw[c][trial] = err[0];
+        for (int k = 0; k < smoothers.length; k++) {
+            smoothers[k].apply(xs, salted, smoothed, n);
+            score(smoothed, err);
+            rmse[c][k][trial] = err[0];
+            mae[c][k][trial] = err[1];
+        }
+    }
+
+    // err[0] = RMSE, err[1] = MAE of y against the clean curve.
+    private void score(double[] y, double[] err) {
+        double sq = 0, abs = 0;
+        for (int i = 0; i < n; i++) {
+            double d = y[i] - clean[i];
+            sq += d * d;
+            abs += Math.abs(d);
+        }
+        err[0] = Math.sqrt(sq / n);
+        err[1] = abs / n;
+    }
+
+    // {mean, sample standard deviation}
+    private static double[] meanSd(double[] v) {
+        double mean = 0;
+        for (double d : v) mean += d;
+        mean /= v.length;
+        double ss = 0;
+        for (double d : v) ss += (d - mean) * (d - mean);
+        return new double[] { mean, v.length > 1 ? Math.sqrt(ss / (v.length - 1)) : 0 };
+    }
+
+    // Summary rows in grid order: noise, range, filter, window, then the
+    // numbers; the last column is "*" for the best RMSE of its noise/range.
+    public List<String[]> summary() {
+        if (rmse == null) throw new IllegalStateException("run() first");
+        List<String[]> rows = new ArrayList<>();
+        for (int c = 0; c < cases(); c++) {
+            double rawRmse = meanSd(raw[c])[0];
+            // NaN scores (e.g. a filter that blew up) never win.
+            int best = -1;
+            double bestRmse = Double.NaN;
+            for (int k = 0; k < configs(); k++) {
+                double r = meanSd(rmse[c][k])[0];
+                if (!Double.isNaN(r) && (best < 0 || Double.compare(r, bestRmse) < 0)) {
+                    best = k;
+                    bestRmse = r;
+                }
+            }
+            for (int k = 0; k < configs(); k++) {
+                double[] r = meanSd(rmse[c][k]), a = meanSd(mae[c][k]);
+                rows.add(new String[] {
+                    noises.get(c / ranges.length),
+                    Double.toString(ranges[c % ranges.length]),
+                    filters.get(k / windows.length),
+                    Integer.toString(windows[k % windows.length]),
+                    Integer.toString(trials),
+                    fmt(r[0]), fmt(r[1]), fmt(a[0]), fmt(a[1]),
+                    fmt(rawRmse),
+                    String.format(Locale.ROOT, "%.2f", rawRmse / r[0]),
+                    k == best ? "*" : ""
+                });
+            }
+        }
+        return rows;
+    }
+
+    private static final String[] COLUMNS = {
+        "noise", "range", "filter", "window", "trials", "rmse", "rmse_sd", "mae", "mae_sd", "raw_rmse", "gain", "best"
+    };
+
+    private static String fmt(double v) {
+        return String.format(Locale.ROOT, "%.5f", v);
+    }
+
+    public void printSummary() {
+        List<String[]> rows = summary();
+        int[] width = new int[COLUMNS.length];
+        for (int j = 0; j < COLUMNS.length; j++) width[j] = COLUMNS[j].length();
+        for (String[] row : rows) {
+            for (int j = 0; j < row.length; j++) width[j] = Math.max(width[j], row[j].length());
+        }
+        StringBuilder sb = new StringBuilder();
+        appendRow(sb, COLUMNS, width);
+        for (String[] row : rows) appendRow(sb, row, width);
+        System.out.print(sb);
+    }
+
+    private static void appendRow(StringBuilder sb, String[] row, int[] width) {
+        for (int j = 0; j < row.length; j++) {
+            sb.append(row[j]);
+            if (j < row.length - 1) sb.append(" ".repeat(width[j] - row[j].length() + 2));
+        }
+        sb.append(System.lineSeparator());
+    }
+
+    public void writeSummary(String file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(file)))) {
+            out.println(String.join(",", COLUMNS));
+            for (String[] row : summary()) out.println(String.join(",", row));
+        }
+    }
+
+    private static double[] doubles(String list) {
+        String[] parts = list.split(",");
+        double[] v = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) v[i] = Double.parseDouble(parts[i].trim());
+        return v;
+    }
+
+    private static int[] ints(String list) {
+        String[] parts = list.split(",");
+        int[] v = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) v[i] = Integer.parseInt(parts[i].trim());
+        return v;
+    }
+
+    private static List<String> names(String list) {
+        List<String> v = new ArrayList<>();
+        for (String s : list.split(",")) v.add(s.trim().toLowerCase(Locale.ROOT));
+        return v;
+    }
+
+    // Usage: MonteCarloSweep [ranges] [windows] [filters] [noises] [trials] [step] [seed] [function] [summary.csv]
+    //   ranges   comma list of salt ranges (default 0.5,1,2,4)
+    //   windows  comma list of smoothing half-widths (default 2,5,10,20)
+    //   filters  comma list from SmoothingFilter.NAMES (default mean,gaussian,savgol,median)
+    //   noises   comma list from NoiseModel.NAMES (default uniform)
+    //   trials   seeded trials per setting (default 20)
+    //   step     x spacing over -10..10 (default 0.01, 2001 points)
+    //   seed     base seed; the same seed gives the same table (default 1)
+    //   function y = f(x) as an Expression (default x^2)
+    //   summary  also write the table to this CSV file
+    // e.g. MonteCarloSweep 1,2 3,6,12 mean,savgol,loess uniform,outlier 50
+    public static void main(String[] args) throws IOException {
+        double[] ranges = doubles(args.length >= 1 ? args[0] : "0.5,1,2,4");
+        int[] windows = ints(args.length >= 2 ? args[1] : "2,5,10,20");
+        List<String> filters = names(args.length >= 3 ? args[2] : "mean,gaussian,savgol,median");
+        List<String> noises = names(args.length >= 4 ? args[3] : "uniform");
+        int trials = args.length >= 5 ? Integer.parseInt(args[4]) : 20;
+        double step = args.length >= 6 ? Double.parseDouble(args[5]) : 0.01;
+        long seed = args.length >= 7 ? Long.parseLong(args[6]) : 1;
+
+        String function = args.length >= 8 ? args[7] : "x^2";
+        XYColumns clean = Expression.compile(function).sample(-10.0, 10.0, step);
+        MonteCarloSweep sweep = new MonteCarloSweep(clean, noises, ranges, filters, windows, trials, seed);
+
+        long t0 = System.nanoTime();
+        sweep.run();
+        double seconds = (System.nanoTime() - t0) / 1e9;
+
+        sweep.printSummary();
+        System.out.printf("%d salted trials x %d filter settings over %d points in %.2f s (seed %d).%n",
+                sweep.cases() * trials, sweep.configs(), sweep.n, seconds, seed);
+        if (args.length >= 9) {
+            sweep.writeSummary(args[8]);
+            System.out.println("Summary written to " + args[8]);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// O(n) centered moving average shared by Smoother and DataSmoother.
+//
+// out[i] = mean of y[max(0, i-window) .. min(n-1, i+window)], exactly the
+// window the old nested loops used (it shrinks at both ends), but the sum is
+// slid along instead of recomputed, so the cost no longer grows with window.
+//
+// Precision: the running sum is Kahan-Neumaier compensated, and it is
+// re-seeded from scratch at the start of every block of outputs, so error
+// from the add/subtract pairs cannot build up over long series.  Because
+// every block is computed the same way no matter who computes it, blocks can
+// also be handed out to separate threads and still give identical output.
+// Non-finite inputs (NaN, +/-Infinity) are only counted, never added, so
+// one bad sample cannot poison the rest of the running sum; a window holding
+// any gives the NaN/Infinity a plain sum of that window would.
+public class MovingAverage {
+
+    private static final int MIN_BLOCK = 1 << 12;
+    // Below this many points the fork/join overhead is not worth it.
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    // Outputs per re-seeded block.  Re-seeding costs 2*window+1 adds, so a
+    // block of at least 16*window keeps that overhead to ~1/8 of the work.
+    static int blockSize(int window) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_BLOCK, 16L * window));
+    }
+
+    // Smooths y[0, n) into out[0, n).  out must not be the same array as y.
+    public static void smooth(double[] y, double[] out, int n, int window) {
+        check(y, out, n, window);
+        int block = blockSize(window);
+        for (int from = 0; from < n; from += block) {
+            smoothRange(y, out, n, window, from, (int) Math.min(n, (long) from + block));
+        }
+    }
+
+    // Same result as smooth(), bit for bit, computed on the common ForkJoinPool.
+    public static void smoothParallel(double[] y, double[] out, int n, int window) {
+        smoothParallel(y, out, n, window, ForkJoinPool.commonPool());
+    }
+
+    // Splits the series on block boundaries; each task reads its block plus
+    // a window-sized halo on both sides straight from y (read-only, shared),
+    // and writes only its own slice of out.
+    public static void smoothParallel(double[] y, double[] out, int n, int window, ForkJoinPool pool) {
+        check(y, out, n, window);
+        if (n < PARALLEL_THRESHOLD || pool.getParallelism() == 1) {
+            smooth(y, out, n, window);
+            return;
+        }
+        int block = blockSize(window);
+        int blocks = (int) ((n + (long) block - 1) / block);
+        pool.invoke(new BlockTask(y, out, n, window, block, 0, blocks));
+    }
+
+    private static final class BlockTask extends RecursiveAction {
+        private final double[] y, out;
+        private final int n, window, block, firstBlock, endBlock;
+
+        BlockTask(double[] y, double[] out, int n, int window, int block, int firstBlock, int endBlock) {
+            this.y = y;
+            this.out = out;
+            this.n = n;
+            this.window = window;
+            this.block = block;
+            this.firstBlock = firstBlock;
+            this.endBlock = endBlock;
+        }
+
+        @Override
+        protected void compute() {
+            if (endBlock - firstBlock == 1) {
+                int from = (int) ((long) firstBlock * block);
+                smoothRange(y, out, n, window, from, (int) Math.min(n, (long) from + block));
+                return;
+            }
+            int mid = (firstBlock + endBlock) >>> 1;
+            invokeAll(new BlockTask(y, out, n, window, block, firstBlock, mid),
+                      new BlockTask(y, out, n, window, block, mid, endBlock));
+        }
+    }
+
+    static void check(double[] y, double[] out, int n, int window) {
+        if (window < 0) throw new IllegalArgumentException("window must be >= 0");
+        if (y == out) throw new IllegalArgumentException("out must be a separate array");
+        if (y.length < n || out.length < n) throw new IllegalArgumentException("arrays shorter than n");
+    }
+
+    // Computes out[from, to), reading y up to window points either side.
+    static void smoothRange(double[] y, double[] out, int n, int window, int from, int to) {
+        double sum = 0.0, comp = 0.0;   // Neumaier running sum and its compensation
+        int nan = 0, posInf = 0, negInf = 0;   // non-finite values inside the window
+
+        int lo = Math.max(0, from - window);
+        int hi = (int) Math.min(n - 1, (long) from + window);
+        for (int j = lo; j <= hi; j++) {
+            double v = y[j];
+            if (Double.isFinite(v)) {
+                double t = sum + v;
+                comp += Math.abs(sum) >= Math.abs(v) ? (sum - t) + v : (v - t) + sum;
+                sum = t;
+            } else if (v != v) {
+                nan++;
+            } else if (v > 0) {
+                posInf++;
+            } else {
+                negInf++;
+            }
+        }
+
+        for (int i = from; i < to; i++) {
+            int left = Math.max(0, i - window);
+            int right = (int) Math.min(n - 1, (long) i + window);
+            if (nan > 0 || (posInf > 0 && negInf > 0)) {
+                out[i] = Double.NaN;
+            } else if (posInf > 0) {
+                out[i] = Double.POSITIVE_INFINITY;
+            } else if (negInf > 0) {
+                out[i] = Double.NEGATIVE_INFINITY;
+            } else {
+                out[i] = (sum + comp) / (right - left + 1);
+            }
+
+            // Slide the window one step to the right.
+            if (i - window >= 0) {
+                double v = y[i - window];
+                if (Double.isFinite(v)) {
+                    double t = sum - v;
+                    comp += Math.abs(sum) >= Math.abs(v) ? (sum - t) - v : (-v - t) + sum;
+                    sum = t;
+                } else if (v != v) {
+                    nan--;
+                } else if (v > 0) {
+                    posInf--;
+                } else {
+                    negInf--;
+                }
+            }
+            if ((long) i + window + 1 < n) {
+                double v = y[i + window + 1];
+                if (Double.isFinite(v)) {
+                    double t = sum + v;
+                    comp += Math.abs(sum) >= Math.abs(v) ? (sum - t) + v : (v - t) + sum;
+                    sum = t;
+                } else if (v != v) {
+                    nan++;
+                } else if (v > 0) {
+                    posInf++;
+                } else {
+                    negInf++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+// The original unweighted centered moving average as a SmoothingFilter.
+// Same output as Smoother.smoothData / MovingAverage.smooth.
+public class MovingAverageFilter implements SmoothingFilter {
+
+    private final int window;
+    private final boolean parallel;
+
+    public MovingAverageFilter(int window) {
+        this(window, false);
+    }
+
+    // parallel = true uses the fork/join kernel; output is bit-identical.
+    public MovingAverageFilter(int window, boolean parallel) {
+        if (window < 0) throw new IllegalArgumentException("window must be >= 0");
+        this.window = window;
+        this.parallel = parallel;
+    }
+
+    @Override
+    public void apply(double[] x, double[] y, double[] out, int n) {
+        if (parallel) MovingAverage.smoothParallel(y, out, n, window);
+        else          MovingAverage.smooth(y, out, n, window);
+    }
+
+    @Override
+    public String toString() {
+        return "moving average (+/-" + window + ")";
+    }
+}
@@ -0,0 +1,99 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+// Salts Y columns with a NoiseModel, in parallel and reproducibly.
+//
+// The series is cut into fixed chunks of CHUNK points.  A root
+// L64X128MixRandom is seeded from the seed and split once per chunk, in
+// chunk order, before any work starts; chunk k always draws from split k.
+// So the output depends only on the seed, the model and n: the same seed
+// gives the same salted data whether one thread or sixty-four do the work,
+// and whatever order the chunks finish in.
+//
+// L64X128MixRandom is one of the JDK's LXM generators: fast, statistically
+// strong, and built to be split into independent streams.
+public class NoiseGenerator {
+
+    public static final String ALGORITHM = "L64X128MixRandom";
+    // Points per chunk (and per generator).  Part of the output definition:
+    // changing it changes which numbers land where.
+    public static final int CHUNK = 1 << 16;
+
+    private final NoiseModel model;
+    private final long seed;
+
+    public NoiseGenerator(NoiseModel model, long seed) {
+        this.model = model;
+        this.seed = seed;
+    }
+
+    // A fresh seed for runs that don't ask for one; print it so the run can
+    // be repeated.
+    public static long randomSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    public NoiseModel model() { return model; }
+
+    public long seed() { return seed; }
+
+    // Salts y[0, n) in place on the common ForkJoinPool.
+    public void salt(double[] y, int n) {
+        salt(y, n, ForkJoinPool.commonPool());
+    }
+
+    public void salt(double[] y, int n, ForkJoinPool pool) {
+        if (y.length < n) throw new IllegalArgumentException("array shorter than n");
+        SplittableGenerator[] streams = streams(n);
+        if (streams.length <= 1 || pool.getParallelism() == 1) {
+            for (int c = 0; c < streams.length; c++) saltChunk(y, n, c, streams[c]);
+            return;
+        }
+        pool.invoke(new ChunkTask(y, n, streams, 0, streams.length));
+    }
+
+    // One generator per chunk, split off the seeded root in chunk order.
+    private SplittableGenerator[] streams(int n) {
+        SplittableGenerator root = (SplittableGenerator) RandomGeneratorFactory.of(ALGORITHM).create(seed);
+        SplittableGenerator[] streams = new SplittableGenerator[(int) ((n + (long) CHUNK - 1) / CHUNK)];
+        for (int c = 0; c < streams.length; c++) streams[c] = root.split();
+        return streams;
+    }
+
+    private void saltChunk(double[] y, int n, int chunk, RandomGenerator rng) {
+        int from = chunk * CHUNK;
+        int to = (int) Math.min(n, (long) from + CHUNK);
+        NoiseModel m = model;
+        for (int i = from; i < to; i++) y[i] = m.salt(y[i], rng);
+    }
+
+    private final class ChunkTask extends RecursiveAction {
+        private final double[] y;
+        private final int n;
+        private final SplittableGenerator[] streams;
+        private final int firstChunk, endChunk;
+
+        ChunkTask(double[] y, int n, SplittableGenerator[] streams, int firstChunk, int endChunk) {
+            this.y = y;
+            this.n = n;
+            this.streams = streams;
+            this.firstChunk = firstChunk;
+            this.endChunk = endChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (endChunk - firstChunk == 1) {
+                saltChunk(y, n, firstChunk, streams[firstChunk]);
+                return;
+            }
+            int mid = (firstChunk + endChunk) >>> 1;
+            invokeAll(new ChunkTask(y, n, streams, firstChunk, mid),
+                      new ChunkTask(y, n, streams, mid, endChunk));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+import java.util.random.RandomGenerator;
+
+// The kinds of noise DataSalter can add to a Y value.
+//
+// salt() returns y plus one draw of noise, taking its random numbers from
+// the generator it is handed, so the same model can be driven by one
+// generator per chunk (see NoiseGenerator).  Models hold only their
+// settings and can be shared between threads.  Non-finite Y values are
+// salted like any other (the result stays NaN/Infinity).
+public interface NoiseModel {
+
+    double salt(double y, RandomGenerator rng);
+
+    // Names accepted by named(), for usage messages.
+    String NAMES = "uniform, gaussian, laplace, poisson, outlier";
+
+    // Builds a model from a command-line name, scaled by the same range the
+    // uniform salt has always used:
+    //   uniform   y + U(-range, range), the original DataSalter noise
+    //   gaussian  y + N(0, range^2)
+    //   laplace   y + Laplace(0, range), heavier tails than Gaussian
+    //   poisson   shot noise, range * Poisson(|y| / range) with the sign of y
+    //             (mean y, variance range * |y|: bigger signals, more noise)
+    //   outlier   uniform noise plus a 1% chance of a +/- 10*range spike
+    static NoiseModel named(String name, double range) {
+        if (!(range >= 0)) throw new IllegalArgumentException("range must be >= 0");
+        switch (name.toLowerCase()) {
+            case "uniform":
+                return new Uniform(range);
+            case "gaussian":
+            case "normal":
+                return new Gaussian(range);
+            case "laplace":
+                return new Laplace(range);
+            case "poisson":
+            case "shot":
+                return new PoissonShot(range);
+            case "outlier":
+            case "spike":
+                return new Outliers(new Uniform(range), 0.01, 10 * range);
+            default:
+                throw new IllegalArgumentException("unknown noise model '" + name + "', expected one of: " + NAMES);
+        }
+    }
+
+    final class Uniform implements NoiseModel {
+        private final double range;
+
+        public Uniform(double range) {
+            this.range = range;
+        }
+
+        @Override
+        public double salt(double y, RandomGenerator rng) {
+            return y + (rng.nextDouble() * 2 * range) - range;
+        }
+
+        @Override
+        public String toString() { return "uniform +/-" + range; }
+    }
+
+    final class Gaussian implements NoiseModel {
+        private final double sigma;
+
+        public Gaussian(double sigma) {
+            this.sigma = sigma;
+        }
+
+        @Override
+        public double salt(double y, RandomGenerator rng) {
+            return y + sigma * rng.nextGaussian();
+        }
+
+        @Override
+        public String toString() { return "gaussian sigma " + sigma; }
+    }
+
+    final class Laplace implements NoiseModel {
+        private final double scale;
+
+        public Laplace(double scale) {
+            this.scale = scale;
+        }
+
+        // A Laplace variate is an exponential one with a random sign.
+        @Override
+        public double salt(double y, RandomGenerator rng) {
+            double e = scale * rng.nextExponential();
+            return rng.nextBoolean() ? y + e : y - e;
+        }
+
+        @Override
+        public String toString() { return "laplace b " + scale; }
+    }
+
+    final class PoissonShot implements NoiseModel {
+        private final double scale;
+
+        public PoissonShot(double scale) {
+            this.scale = scale;
+        }
+
+        @Override
+        public double salt(double y, RandomGenerator rng) {
+            if (scale == 0 || y == 0 || !Double.isFinite(y)) return y;
+            double counts = poisson(Math.abs(y) / scale, rng);
+            return Math.copySign(scale * counts, y);
+        }
+
+        @Override
+        public String toString() { return "poisson shot scale " + scale; }
+
+        // One Poisson(lambda) variate: inversion for small lambda, Hormann's
+        // transformed rejection (PTRS) above that, which takes about 1.2
+        // tries on average for any lambda.
+        static double poisson(double lambda, RandomGenerator rng) {
+            if (lambda < 10) {
+                double p = Math.exp(-lambda), cdf = p, u = rng.nextDouble();
+                int k = 0;
+                while (u > cdf && p > 0) {
+                    k++;
+                    p *= lambda / k;
+                    cdf += p;
+                }
+                return k;
+            }
+            double slam = Math.sqrt(lambda);
+            double b = 0.931 + 2.53 * slam;
+            double a = -0.059 + 0.02483 * b;
+            double invAlpha = 1.1239 + 1.1328 / (b - 3.4);
+            double vr = 0.9277 - 3.6224 / (b - 2);
+            while (true) {
+                double u = rng.nextDouble() - 0.5;
+                double v = rng.nextDouble();
+                double us = 0.5 - Math.abs(u);
+                double k = Math.floor((2 * a / us + b) * u + lambda + 0.43);
+                if (us >= 0.07 && v <= vr) return k;
+                if (k < 0 || (us < 0.013 && v > us)) continue;
+                // Slow path (a minority of draws): the exact acceptance test.
+                if (Math.log(v * invAlpha / (a / (us * us) + b)) <= -lambda + k * Math.log(lambda) - logFactorial(k)) {
+                    return k;
+                }
+            }
+        }
+
+        private static final double[] LOG_FACTORIAL = new double[256];
+        static {
+            for (int k = 2; k < LOG_FACTORIAL.length; k++) {
+                LOG_FACTORIAL[k] = LOG_FACTORIAL[k - 1] + Math.log(k);
+            }
+        }
+
+        // ln(k!) for a whole number k >= 0: table below 256, Stirling series
+        // (error < 1e-15 there) above.
+        static double logFactorial(double k) {
+            if (k < LOG_FACTORIAL.length) return LOG_FACTORIAL[(int) k];
+            double n = k + 1, inv = 1 / n, inv2 = inv * inv;
+            return (n - 0.5) * Math.log(n) - n + 0.5 * Math.log(2 * Math.PI)
+                    + inv * (1.0 / 12 - inv2 * (1.0 / 360 - inv2 / 1260));
+        }
+    }
+
+    // Wraps another model: every point gets its noise, and with the given
+    // probability also a spike of exactly +/- magnitude.
+    final class Outliers implements NoiseModel {
+        private final NoiseModel base;
+        private final double probability, magnitude;
+
+        public Outliers(NoiseModel base, double probability, double magnitude) {
+            if (!(probability >= 0 && probability <= 1)) throw new IllegalArgumentException("probability must be in [0, 1]");
+            this.base = base;
+            this.probability = probability;
+            this.magnitude = magnitude;
+        }
+
+        @Override
+        public double salt(double y, RandomGenerator rng) {
+            double v = base.salt(y, rng);
+            if (rng.nextDouble() < probability) v += rng.nextBoolean() ? magnitude : -magnitude;
+            return v;
+        }
+
+        @Override
+        public String toString() { return base + " with " + probability + " spikes of +/-" + magnitude; }
+    }
+}
@@ -1,8 +1,4 @@
-import java.io.FileWriter;
-import java.io.PrintWriter;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
 public class PlotFunction {
 
@@ -11,32 +7,32 @@ public class PlotFunction {
         return x * x;  // Parabola
     }
     
-    public static void main(String[] args) {
-        // We'll store (x, y) pairs in a List of String arrays or a List of a custom class.
-        List<double[]> dataPoints = new ArrayList<>();
-
-        // Generate data points for x from -10 to 10 in steps
-        double start = -10.0;
-        double end = 10.0;
-        double step = 0.5; // step size
-
-        for (double x = start; x <= end; x += step) {
-            double y = myFunction(x);
-            dataPoints.add(new double[] {x, y});
+    // Samples myFunction at x = start + i*step for every x up to end
+    // (a hair of tolerance so end itself is kept despite rounding).
+    // Computing x from i instead of adding step repeatedly keeps rounding
+    // error from piling up over millions of points.
+    public static XYColumns generate(double start, double end, double step) {
+        int n = Expression.sampleCount(start, end, step);
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            double x = start + i * step;
+            xs[i] = x;
+            ys[i] = myFunction(x);
         }
+        return new XYColumns(xs, ys, n);
+    }
 
-        // Export to a CSV file
-        String fileName = "plot_data.csv";
-        try (FileWriter fileWriter = new FileWriter(fileName);
-             PrintWriter printWriter = new PrintWriter(fileWriter)) {
-
-            // Header
-            printWriter.println("X,Y");
+    // Same grid for a user-supplied function such as "sin(x)/x": the text is
+    // compiled once and evaluated a block at a time in parallel chunks.
+    public static XYColumns generate(String expression, double start, double end, double step) {
+        return Expression.compile(expression).sample(start, end, step);
+    }
 
-            // data points
-            for (double[] point : dataPoints) {
-                printWriter.println(point[0] + "," + point[1]);
-            }
+    // Export X,Y columns to a CSV file
+    public static void writeXYToCSV(XYColumns dataPoints, String fileName) {
+        try {
+            XYCsvWriter.write(dataPoints, fileName);
 
             System.out.println("Data successfully exported to " + fileName);
 
@@ -44,4 +40,33 @@ public class PlotFunction {
             e.printStackTrace();
         }
     }
+
+    // Export to CSV, or to the binary columnar format for a ".xyb" name
+    public static void writeColumns(XYColumns dataPoints, String fileName) {
+        if (!XYFiles.isBinary(fileName)) {
+            writeXYToCSV(dataPoints, fileName);
+            return;
+        }
+        try {
+            XYFiles.write(dataPoints, fileName);
+            System.out.println("Data successfully exported to " + fileName);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Usage: PlotFunction [output] [expression] [start] [end] [step]
+    // e.g. PlotFunction wave.xyb "3*exp(-x^2/8)*cos(4*x)" -10 10 1e-6
+    public static void main(String[] args) {
+        // Generate data points for x from -10 to 10 in steps
+        double start = args.length >= 3 ? Double.parseDouble(args[2]) : -10.0;
+        double end = args.length >= 4 ? Double.parseDouble(args[3]) : 10.0;
+        double step = args.length >= 5 ? Double.parseDouble(args[4]) : 0.5; // step size
+
+        XYColumns dataPoints = args.length >= 2 ? generate(args[1], start, end, step)
+                                                : generate(start, end, step);
+
+        // Export to a CSV file (or plot_data.xyb etc. given as the first argument)
+        writeColumns(dataPoints, args.length >= 1 ? args[0] : "plot_data.csv");
+    }
 }
@@ -0,0 +1,129 @@
+// Savitzky-Golay smoothing: each point is replaced by the value at that point
+// of a least-squares polynomial fitted to the 2*halfWidth+1 samples around
+// it.  Unlike a plain average this keeps peak heights and slopes, which is
+// what matters when the curve itself (not only its level) is of interest.
+//
+// For evenly spaced samples the fit is a fixed linear combination of the
+// window, so the weights are worked out once, H = (A^T A)^-1 A^T with
+// A[j][k] = u_j^k, and the interior becomes a plain convolution with row 0
+// of H.  The offsets are scaled to u in [-1, 1] so A^T A stays well
+// conditioned for wide windows.  The first and last halfWidth points use the
+// fit of the nearest full window, evaluated at their own offset, instead of
+// a shrunk window.  Series shorter than the window are fitted with the
+// widest window (and at most the degree) that fits.
+public class SavitzkyGolayFilter implements SmoothingFilter {
+
+    private final int halfWidth;
+    private final int degree;
+    private final Fit fit;
+
+    public SavitzkyGolayFilter(int halfWidth, int degree) {
+        if (halfWidth < 0) throw new IllegalArgumentException("halfWidth must be >= 0");
+        if (degree < 0) throw new IllegalArgumentException("degree must be >= 0");
+        this.halfWidth = halfWidth;
+        this.degree = degree;
+        this.fit = new Fit(halfWidth, Math.min(degree, 2 * halfWidth));
+    }
+
+    @Override
+    public void apply(double[] x, double[] y, double[] out, int n) {
+        if (y == out) throw new IllegalArgumentException("out must be a separate array");
+        if (y.length < n || out.length < n) throw new IllegalArgumentException("arrays shorter than n");
+        if (n == 0) return;
+        Fit f = fit;
+        if (n < 2 * halfWidth + 1) {
+            int m = (n - 1) / 2;
+            f = new Fit(m, Math.min(degree, 2 * m));
+        }
+        int m = f.m, width = 2 * m + 1;
+        double[] c = f.h[0];
+
+        for (int i = m; i < n - m; i++) {
+            double sum = 0;
+            for (int j = 0, s = i - m; j < width; j++) sum += c[j] * y[s + j];
+            out[i] = sum;
+        }
+        // Ends: fit the first / last full window and evaluate off-centre.
+        for (int i = 0; i < m; i++) {
+            out[i] = f.evaluate(y, 0, i - m);
+            out[n - 1 - i] = f.evaluate(y, n - width, m - i);
+        }
+    }
+
+    // Least-squares weights for one window half-width and degree.
+    private static final class Fit {
+        final int m;
+        final double[][] h;      // (degree+1) x (2m+1)
+
+        Fit(int m, int degree) {
+            this.m = m;
+            int width = 2 * m + 1, terms = degree + 1;
+            double[][] a = new double[width][terms];
+            for (int j = 0; j < width; j++) {
+                double u = m == 0 ? 0 : (double) (j - m) / m;
+                double p = 1;
+                for (int k = 0; k < terms; k++, p *= u) a[j][k] = p;
+            }
+            double[][] g = new double[terms][terms];
+            for (int r = 0; r < terms; r++)
+                for (int s = 0; s < terms; s++) {
+                    double sum = 0;
+                    for (int j = 0; j < width; j++) sum += a[j][r] * a[j][s];
+                    g[r][s] = sum;
+                }
+            double[][] gInv = invert(g);
+            h = new double[terms][width];
+            for (int k = 0; k < terms; k++)
+                for (int j = 0; j < width; j++) {
+                    double sum = 0;
+                    for (int s = 0; s < terms; s++) sum += gInv[k][s] * a[j][s];
+                    h[k][j] = sum;
+                }
+        }
+
+        // Value at offset t (in samples, -m..m) of the polynomial fitted to
+        // y[start, start + 2m + 1).
+        double evaluate(double[] y, int start, int t) {
+            double u = m == 0 ? 0 : (double) t / m;
+            double result = 0, p = 1;
+            for (double[] row : h) {
+                double coef = 0;
+                for (int j = 0; j < row.length; j++) coef += row[j] * y[start + j];
+                result += coef * p;
+                p *= u;
+            }
+            return result;
+        }
+
+        // Gauss-Jordan with partial pivoting; g is small (degree + 1 square).
+        private static double[][] invert(double[][] g) {
+            int n = g.length;
+            double[][] w = new double[n][2 * n];
+            for (int r = 0; r < n; r++) {
+                System.arraycopy(g[r], 0, w[r], 0, n);
+                w[r][n + r] = 1;
+            }
+            for (int col = 0; col < n; col++) {
+                int pivot = col;
+                for (int r = col + 1; r < n; r++) if (Math.abs(w[r][col]) > Math.abs(w[pivot][col])) pivot = r;
+                if (w[pivot][col] == 0) throw new IllegalStateException("Savitzky-Golay fit is singular");
+                double[] tmp = w[col]; w[col] = w[pivot]; w[pivot] = tmp;
+                double d = w[col][col];
+                for (int k = 0; k < 2 * n; k++) w[col][k] /= d;
+                for (int r = 0; r < n; r++) {
+                    if (r == col || w[r][col] == 0) continue;
+                    double f = w[r][col];
+                    for (int k = 0; k < 2 * n; k++) w[r][k] -= f * w[col][k];
+                }
+            }
+            double[][] inv = new double[n][n];
+            for (int r = 0; r < n; r++) System.arraycopy(w[r], n, inv[r], 0, n);
+            return inv;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Savitzky-Golay (+/-" + halfWidth + ", degree " + degree + ")";
+    }
+}
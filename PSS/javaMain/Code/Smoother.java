@@ -1,67 +1,68 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.PrintWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 public class Smoother {
 
     // Reads X,Y CSV data into a List<double[]>.
-    // Adjust or remove the "header check" if your CSV has no header.
+    // Header and malformed-line rules live in the shared XYCsvReader.
     public static List<double[]> readXYFromCSV(String inputCsv) {
-        List<double[]> xyData = new ArrayList<>();
-
-        try (BufferedReader br = new BufferedReader(new FileReader(inputCsv))) {
-            String line;
-            boolean isHeader = true;
-
-            while ((line = br.readLine()) != null) {
-                // Check for a header row and skip if it looks like one.
-                if (isHeader) {
-                    if (line.toLowerCase().contains("x") && line.toLowerCase().contains("y")) {
-                        // Skip this line if it's the header
-                        isHeader = false;
-                        continue;
-                    }
-                    // If it’s numeric data, we still parse it below but only skip once
-                    isHeader = false;
-                }
+        return readColumnsFromCSV(inputCsv).toList();
+    }
 
-                // Split on comma
-                String[] parts = line.split(",");
-                if (parts.length < 2) {
-                    continue; // skip malformed lines
-                }
+    // Reads X,Y CSV data into primitive columns (no object per row).
+    public static XYColumns readColumnsFromCSV(String inputCsv) {
+        try {
+            return XYCsvReader.read(inputCsv);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new XYColumns();
+        }
+    }
 
-                try {
-                    double x = Double.parseDouble(parts[0].trim());
-                    double y = Double.parseDouble(parts[1].trim());
-                    xyData.add(new double[] { x, y });
-                } catch (NumberFormatException e) {
-                    // Skip invalid lines
-                    System.err.println("Skipping invalid numeric line: " + line);
-                }
-            }
+    // Reads CSV, or the binary columnar format for a ".xyb" name.
+    public static XYColumns readColumns(String inputFile) {
+        try {
+            return XYFiles.read(inputFile);
         } catch (IOException e) {
             e.printStackTrace();
+            return new XYColumns();
         }
+    }
 
-        return xyData;
+    // Writes CSV, or the binary columnar format for a ".xyb" name.
+    public static void writeColumns(XYColumns xyData, String outputFile) {
+        if (!XYFiles.isBinary(outputFile)) {
+            writeXYToCSV(xyData, outputFile);
+            return;
+        }
+        try {
+            XYFiles.write(xyData, outputFile);
+            System.out.println("Smoothed data written to: " + outputFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     // Writes X,Y data to a CSV file
     public static void writeXYToCSV(List<double[]> xyData, String outputCsv) {
-        try (FileWriter fw = new FileWriter(outputCsv);
-             PrintWriter pw = new PrintWriter(fw)) {
+        try {
+            XYCsvWriter.write(xyData, outputCsv);
 
-            // Optional: print header
-            pw.println("X,Y");
+            System.out.println("Smoothed data written to: " + outputCsv);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
-            for (double[] pair : xyData) {
-                pw.println(pair[0] + "," + pair[1]);
-            }
+    // Writes X,Y columns to a CSV file
+    public static void writeXYToCSV(XYColumns xyData, String outputCsv) {
+        try {
+            XYCsvWriter.write(xyData, outputCsv);
 
             System.out.println("Smoothed data written to: " + outputCsv);
         } catch (IOException e) {
@@ -72,36 +73,135 @@ public class Smoother {
     // Smooths the Y-values using a "moving average" window approach.
     // For each index i, we look up to 'window' points on both sides
     // and average their Y-values. This helps reduce noise.
+    // The running-sum kernel in MovingAverage makes this O(n) for any window.
     public static void smoothData(List<double[]> xyData, int window) {
+        int n = xyData.size();
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            y[i] = xyData.get(i)[1]; // only the y-value (index 1)
+        }
 
-        double[] smoothedY = new double[xyData.size()];
+        double[] smoothedY = new double[n];
+        MovingAverage.smooth(y, smoothedY, n, window);
 
-        // Loop through each point
-        for (int i = 0; i < xyData.size(); i++) {
-            // Determine the bounds for our window
-            // Example, i - window through i + window
-            int start = Math.max(0, i - window);
-            int end = Math.min(xyData.size() - 1, i + window);
+        // Write the smoothed Y back into the existing pairs
+        for (int i = 0; i < n; i++) {
+            xyData.get(i)[1] = smoothedY[i];
+        }
+    }
 
-            double sum = 0.0;
-            int count = 0;
+    // Same moving average over primitive columns; Y is replaced in place.
+    public static void smoothData(XYColumns xyData, int window) {
+        smoothData(xyData, window, false);
+    }
 
-            // Sum up all Y-values in [start, end]
-            for (int j = start; j <= end; j++) {
-                sum += xyData.get(j)[1]; // only the y-value (index 1)
-                count++;
+    // parallel = true splits the series across the common ForkJoinPool;
+    // the output is bit-identical to the sequential run.
+    public static void smoothData(XYColumns xyData, int window, boolean parallel) {
+        int n = xyData.size();
+        double[] smoothedY = new double[n];
+        if (parallel) {
+            MovingAverage.smoothParallel(xyData.ys(), smoothedY, n, window);
+        } else {
+            MovingAverage.smooth(xyData.ys(), smoothedY, n, window);
+        }
+        System.arraycopy(smoothedY, 0, xyData.ys(), 0, n);
+    }
+
+    // Smooths with any SmoothingFilter (median, Savitzky-Golay, LOESS, ...);
+    // Y is replaced in place.
+    public static void smoothData(XYColumns xyData, SmoothingFilter filter) {
+        int n = xyData.size();
+        double[] smoothedY = new double[n];
+        filter.apply(xyData.xs(), xyData.ys(), smoothedY, n);
+        System.arraycopy(smoothedY, 0, xyData.ys(), 0, n);
+    }
+
+    // Streaming moving average: reads X,Y rows from in and writes "X,Y" rows
+    // to out as soon as each one's right-hand window has arrived, keeping
+    // only 2*window+2 rows in memory.  Output is flushed whenever the input
+    // has nothing more for the moment, so a live feed sees results promptly.
+    // Same numbers as smoothData on the whole file.  Returns rows written.
+    public static long streamData(InputStream in, OutputStream out, int window) throws IOException {
+        XYCsvWriter w = new XYCsvWriter(out, XYCsvWriter.SHORTEST);
+        w.header();
+        StreamingMovingAverage ma = new StreamingMovingAverage(window, w);
+        try {
+            XYCsvReader.read(in, new XYCsvReader.RowHandler() {
+                @Override
+                public void row(double x, double y) {
+                    ma.push(x, y);
+                }
+
+                @Override
+                public void idle() {
+                    w.idle();
+                }
+            });
+            ma.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        w.flush();
+        return ma.rowsEmitted();
+    }
+
+    // Input that never ends: at end of file it waits and reads again, like
+    // tail -f, so a file another program is still appending to can be
+    // smoothed as it grows.  Interrupting the thread ends the stream.
+    private static final class FollowInputStream extends InputStream {
+        private static final long POLL_MILLIS = 200;
+        private final InputStream in;
+
+        FollowInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            while (true) {
+                int n = in.read(b, off, len);
+                if (n > 0) return n;
+                try {
+                    Thread.sleep(POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return -1;
+                }
             }
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return in.available();
+        }
 
-            // Compute the average
-            double avg = sum / count;
-            smoothedY[i] = avg;
+        @Override
+        public void close() throws IOException {
+            in.close();
         }
+    }
 
-        // Now copy the smoothedY back into xyData
-        for (int i = 0; i < xyData.size(); i++) {
-            double x = xyData.get(i)[0];
-            // Replace Y with the smoothed version
-            xyData.set(i, new double[] { x, smoothedY[i] });
+    // Runs streamData for main's "stream" / "follow" modes.  "-" selects
+    // stdin / stdout; progress goes to stderr so stdout can carry the data.
+    // Streaming is CSV in, CSV out.
+    private static void runStreaming(String inputCsv, String outputCsv, int window, boolean follow) {
+        try (InputStream raw = inputCsv.equals("-") ? System.in : new FileInputStream(inputCsv);
+             OutputStream out = outputCsv.equals("-") ? System.out : new FileOutputStream(outputCsv)) {
+            InputStream in = follow ? new FollowInputStream(raw) : raw;
+            System.err.println("Streaming " + inputCsv + " -> " + outputCsv
+                               + " with window +/- " + window + (follow ? " (following)" : "") + " ...");
+            long rows = streamData(in, out, window);
+            System.err.println("Smoothed " + rows + " rows.");
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 
@@ -114,17 +214,37 @@ public class Smoother {
         String inputCsv = "plot_data.csv";      // or "original_data.csv" or any file
         String outputCsv = "smoothed_data.csv";
         int windowValue = 5;  // number of points to left/right for averaging
+        boolean parallel = false;
+        String filterName = "mean";
+
+        // Optional overrides: [window] [input] [output] [mode]
+        // (".xyb" input/output files use the binary columnar format)
+        // where mode is "parallel", "stream" (constant memory, "-" = stdin /
+        // stdout), "follow" (stream a growing file) or one of SmoothingFilter.NAMES
+        if (args.length >= 1) windowValue = Integer.parseInt(args[0]);
+        if (args.length >= 2) inputCsv = args[1];
+        if (args.length >= 3) outputCsv = args[2];
+        if (args.length >= 4 && (args[3].equalsIgnoreCase("stream") || args[3].equalsIgnoreCase("follow"))) {
+            runStreaming(inputCsv, outputCsv, windowValue, args[3].equalsIgnoreCase("follow"));
+            return;
+        }
+        if (args.length >= 4) {
+            parallel = args[3].equalsIgnoreCase("parallel");
+            if (!parallel) filterName = args[3];
+        }
+        SmoothingFilter filter = parallel ? new MovingAverageFilter(windowValue, true)
+                                          : SmoothingFilter.named(filterName, windowValue);
 
         // 1. Read data
-        List<double[]> xyData = readXYFromCSV(inputCsv);
+        XYColumns xyData = readColumns(inputCsv);
         System.out.println("Loaded " + xyData.size() + " data points.");
 
         // 2. Smooth data
-        System.out.println("Smoothing data with window +/- " + windowValue + " ...");
-        smoothData(xyData, windowValue);
+        System.out.println("Smoothing data with " + filter + " ...");
+        smoothData(xyData, filter);
 
         // 3. Write smoothed data
-        writeXYToCSV(xyData, outputCsv);
+        writeColumns(xyData, outputCsv);
 
         System.out.println("Done.");
     }
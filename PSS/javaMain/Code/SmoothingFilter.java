@@ -0,0 +1,48 @@
+// Common interface for the smoothing filters Smoother can apply.
+//
+// Every filter works on primitive arrays: it reads x[0, n) and y[0, n) and
+// writes the smoothed Y values to out[0, n).  out must be a separate array
+// from y (most filters still read y ahead of the point they are writing).
+// x is only used by filters that care about spacing (LOESS); the others
+// treat the samples as evenly spaced and accept any x, including null.
+//
+// Filters hold only their settings, so one instance can be shared between
+// threads.
+public interface SmoothingFilter {
+
+    void apply(double[] x, double[] y, double[] out, int n);
+
+    // Names accepted by named(), for usage messages.
+    String NAMES = "mean, ema, gaussian, savgol, median, loess";
+
+    // Builds a filter from a command-line name, sized from the same +/- window
+    // the moving average uses:
+    //   mean      moving average over i-window .. i+window
+    //   ema       zero-phase exponential average, alpha = 1 / (window + 1)
+    //   gaussian  Gaussian weights, sigma = window / 3, cut off at +/- window
+    //   savgol    Savitzky-Golay, quadratic fit over 2*window+1 points
+    //   median    running median over i-window .. i+window
+    //   loess     robust local-linear fit over the 2*window+1 nearest points
+    static SmoothingFilter named(String name, int window) {
+        if (window < 0) throw new IllegalArgumentException("window must be >= 0");
+        switch (name.toLowerCase()) {
+            case "mean":
+            case "average":
+                return new MovingAverageFilter(window);
+            case "ema":
+                return new ExponentialFilter(1.0 / (window + 1), true);
+            case "gaussian":
+                return new GaussianFilter(window / 3.0, window);
+            case "savgol":
+            case "sg":
+                return new SavitzkyGolayFilter(window, 2);
+            case "median":
+                return new MedianFilter(window);
+            case "loess":
+            case "lowess":
+                return new LoessFilter(2 * window + 1, LoessFilter.DEFAULT_ITERATIONS);
+            default:
+                throw new IllegalArgumentException("Unknown filter '" + name + "' (expected " + NAMES + ")");
+        }
+    }
+}
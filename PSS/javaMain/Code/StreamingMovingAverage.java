@@ -0,0 +1,113 @@
+// Online version of MovingAverage for input of unknown length.
+//
+// Rows are pushed one at a time; the smoothed row i is handed to the sink as
+// soon as row i+window has arrived (its right-hand window is full), and
+// finish() emits the last window rows once the end of the input is known.
+// Only the last 2*window+2 rows are kept (one more than a window, so the row
+// leaving the sum is still there when its replacement arrives), so memory is
+// constant however long the input runs.
+//
+// The arithmetic is the one MovingAverage.smoothRange does, step for step,
+// including re-seeding the compensated sum at the same block boundaries, so
+// the streamed output is bit-identical to smoothing the whole file at once.
+public class StreamingMovingAverage {
+
+    private final int window;
+    private final int block;
+    private final XYCsvReader.RowHandler sink;
+    private final double[] xs, ys;      // ring: row j lives in slot j % xs.length
+    private long received;              // rows pushed so far
+    private long next;                  // next row to emit
+
+    private double sum, comp;           // Neumaier running sum and compensation
+    private int nan, posInf, negInf;    // non-finite values inside the window
+
+    public StreamingMovingAverage(int window, XYCsvReader.RowHandler sink) {
+        if (window < 0) throw new IllegalArgumentException("window must be >= 0");
+        if ((long) 2 * window + 2 > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("window too large");
+        this.window = window;
+        this.block = MovingAverage.blockSize(window);
+        this.sink = sink;
+        this.xs = new double[2 * window + 2];
+        this.ys = new double[xs.length];
+    }
+
+    public void push(double x, double y) {
+        int slot = (int) (received % xs.length);
+        xs[slot] = x;
+        ys[slot] = y;
+        received++;
+        while (next + window < received) emit();
+    }
+
+    // End of input: the remaining rows are smoothed with their window
+    // shrunk at the right, as in the batch version.
+    public void finish() {
+        while (next < received) emit();
+    }
+
+    public long rowsEmitted() { return next; }
+
+    private void emit() {
+        long i = next;
+        long last = received - 1;      // only the true last row once finish() runs
+        if (i % block == 0) {
+            // Block start: seed from scratch exactly like smoothRange.
+            sum = 0.0;
+            comp = 0.0;
+            nan = posInf = negInf = 0;
+            for (long j = Math.max(0, i - window), hi = Math.min(last, i + window); j <= hi; j++) add(y(j));
+        } else {
+            // Slide from row i-1: drop y[i-1-window], then take y[i+window].
+            if (i - 1 - window >= 0) remove(y(i - 1 - window));
+            if (i + window <= last) add(y(i + window));
+        }
+
+        long left = Math.max(0, i - window);
+        long right = Math.min(last, i + window);
+        double value;
+        if (nan > 0 || (posInf > 0 && negInf > 0)) {
+            value = Double.NaN;
+        } else if (posInf > 0) {
+            value = Double.POSITIVE_INFINITY;
+        } else if (negInf > 0) {
+            value = Double.NEGATIVE_INFINITY;
+        } else {
+            value = (sum + comp) / (right - left + 1);
+        }
+        next++;
+        sink.row(xs[(int) (i % xs.length)], value);
+    }
+
+    private double y(long j) {
+        return ys[(int) (j % ys.length)];
+    }
+
+    private void add(double v) {
+        if (Double.isFinite(v)) {
+            double t = sum + v;
+            comp += Math.abs(sum) >= Math.abs(v) ? (sum - t) + v : (v - t) + sum;
+            sum = t;
+        } else if (v != v) {
+            nan++;
+        } else if (v > 0) {
+            posInf++;
+        } else {
+            negInf++;
+        }
+    }
+
+    private void remove(double v) {
+        if (Double.isFinite(v)) {
+            double t = sum - v;
+            comp += Math.abs(sum) >= Math.abs(v) ? (sum - t) - v : (-v - t) + sum;
+            sum = t;
+        } else if (v != v) {
+            nan--;
+        } else if (v > 0) {
+            posInf--;
+        } else {
+            negInf--;
+        }
+    }
+}
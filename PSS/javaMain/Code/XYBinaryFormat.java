@@ -0,0 +1,174 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// Compact binary columnar file for X,Y series (".xyb").
+//
+// The doubles are stored as they are in memory, one column after the other,
+// so a file is 16 bytes per point (CSV text is ~3x that) and reading one
+// back is a bulk copy instead of parsing.  Columns start on 8-byte
+// boundaries, so map() can hand them out as DoubleBuffer views of the mapped
+// file without copying anything.
+//
+//   offset 0   int magic 'PSXY', int version, long count,
+//              int rows per checksum chunk (0 = no checksums), 12 reserved
+//   offset 32  X column, count little-endian doubles
+//              Y column, count little-endian doubles
+//              CRC32 of each chunk of X, then of each chunk of Y (ints)
+public class XYBinaryFormat {
+
+    public static final String EXTENSION = ".xyb";
+    public static final int DEFAULT_CHUNK_ROWS = 1 << 16;
+
+    private static final int MAGIC = 0x50535859;     // "PSXY"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    // One mapping (and one DoubleBuffer) is int-indexed.
+    private static final long MAX_ROWS = (Integer.MAX_VALUE - 8) / 8;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    private XYBinaryFormat() { }
+
+    // A mapped file: read-only views straight onto the file pages.
+    public static final class Mapped {
+        private final ByteBuffer x, y, checksums;     // the mapped file regions
+        private final int count, chunkRows;
+
+        private Mapped(ByteBuffer x, ByteBuffer y, ByteBuffer checksums, int count, int chunkRows) {
+            this.x = x;
+            this.y = y;
+            this.checksums = checksums;
+            this.count = count;
+            this.chunkRows = chunkRows;
+        }
+
+        public int size()          { return count; }
+        public DoubleBuffer xs()   { return x.duplicate().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer(); }
+        public DoubleBuffer ys()   { return y.duplicate().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer(); }
+        public boolean hasChecksums() { return chunkRows > 0; }
+
+        // Recomputes every chunk checksum over the mapped bytes; throws if
+        // any does not match.
+        public void verify() throws IOException {
+            if (chunkRows == 0) return;
+            int chunks = chunks(count, chunkRows);
+            verifyColumn(x, 0, chunks, "X");
+            verifyColumn(y, chunks, chunks, "Y");
+        }
+
+        private void verifyColumn(ByteBuffer column, int firstCrc, int chunks, String name) throws IOException {
+            CRC32 crc = new CRC32();
+            for (int c = 0; c < chunks; c++) {
+                int from = c * chunkRows, len = Math.min(chunkRows, count - from);
+                crc.reset();
+                crc.update(column.duplicate().limit((from + len) * 8).position(from * 8));
+                if ((int) crc.getValue() != checksums.getInt((firstCrc + c) * 4)) {
+                    throw new IOException("Checksum mismatch in " + name + " rows " + from + ".." + (from + len - 1));
+                }
+            }
+        }
+
+        // Copies the columns into heap arrays.
+        public XYColumns toColumns() {
+            double[] xs = new double[count], ys = new double[count];
+            xs().get(xs);
+            ys().get(ys);
+            return new XYColumns(xs, ys, count);
+        }
+    }
+
+    public static void write(Path file, XYColumns data) throws IOException {
+        write(file, data.xs(), data.ys(), data.size(), DEFAULT_CHUNK_ROWS);
+    }
+
+    // chunkRows = 0 writes no checksums.
+    public static void write(Path file, double[] x, double[] y, int n, int chunkRows) throws IOException {
+        if (x.length < n || y.length < n) throw new IllegalArgumentException("Columns shorter than " + n);
+        if (chunkRows < 0 || chunkRows > WRITE_BUFFER_BYTES / 8) throw new IllegalArgumentException("bad chunkRows " + chunkRows);
+        if (n > MAX_ROWS) throw new IllegalArgumentException("too many rows for one file: " + n);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(n).putInt(chunkRows);
+        header.clear();
+
+        int chunks = chunkRows == 0 ? 0 : chunks(n, chunkRows);
+        ByteBuffer checksums = ByteBuffer.allocate(2 * chunks * 4).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer buf = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(ch, header);
+            writeColumn(ch, buf, x, n, chunkRows, checksums);
+            writeColumn(ch, buf, y, n, chunkRows, checksums);
+            checksums.flip();
+            writeFully(ch, checksums);
+        }
+    }
+
+    // Columns go out through one direct buffer; with checksums on, each
+    // buffer load is exactly one chunk so its CRC comes from the same bytes.
+    private static void writeColumn(FileChannel ch, ByteBuffer buf, double[] col, int n,
+                                    int chunkRows, ByteBuffer checksums) throws IOException {
+        int rowsPerWrite = chunkRows == 0 ? buf.capacity() / 8 : chunkRows;
+        CRC32 crc = new CRC32();
+        for (int from = 0; from < n; from += rowsPerWrite) {
+            int len = Math.min(rowsPerWrite, n - from);
+            buf.clear();
+            buf.asDoubleBuffer().put(col, from, len);
+            buf.limit(len * 8);
+            if (chunkRows > 0) {
+                crc.reset();
+                crc.update(buf.duplicate());
+                checksums.putInt((int) crc.getValue());
+            }
+            writeFully(ch, buf);
+        }
+    }
+
+    // Maps a file read-only.  Nothing is copied; the buffers read the file
+    // pages on demand.  Checksums are only checked by Mapped.verify().
+    public static Mapped map(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && ch.read(header) >= 0) { }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not an XY binary file: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) throw new IOException("Unsupported XY binary version " + version + ": " + file);
+            long count = header.getLong();
+            int chunkRows = header.getInt();
+            if (count < 0 || count > MAX_ROWS || chunkRows < 0) throw new IOException("Corrupt XY binary header: " + file);
+            long columnBytes = count * 8;
+            long crcBytes = chunkRows == 0 ? 0 : 2L * chunks((int) count, chunkRows) * 4;
+            if (ch.size() != HEADER_BYTES + 2 * columnBytes + crcBytes) {
+                throw new IOException("XY binary file has the wrong length (truncated?): " + file);
+            }
+            ByteBuffer x = ch.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, columnBytes);
+            ByteBuffer y = ch.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + columnBytes, columnBytes);
+            ByteBuffer crcs = ch.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + 2 * columnBytes, crcBytes)
+                                .order(ByteOrder.LITTLE_ENDIAN);
+            return new Mapped(x, y, crcs, (int) count, chunkRows);
+        }
+    }
+
+    // Reads a whole file into heap columns, verifying the checksums.
+    public static XYColumns read(Path file) throws IOException {
+        Mapped m = map(file);
+        m.verify();
+        return m.toColumns();
+    }
+
+    private static int chunks(int count, int chunkRows) {
+        return (int) (((long) count + chunkRows - 1) / chunkRows);
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) ch.write(b);
+    }
+}
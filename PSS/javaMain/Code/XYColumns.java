@@ -0,0 +1,66 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// A growable pair of primitive columns holding X,Y points.
+// Used instead of a List<double[]> so large series cost 16 bytes per point
+// and no object per row.
+public class XYColumns {
+
+    private double[] x;
+    private double[] y;
+    private int size;
+
+    public XYColumns() {
+        this(1024);
+    }
+
+    public XYColumns(int initialCapacity) {
+        x = new double[Math.max(initialCapacity, 16)];
+        y = new double[x.length];
+    }
+
+    // Wraps existing arrays (first n entries) without copying.
+    public XYColumns(double[] x, double[] y, int n) {
+        if (x.length < n || y.length < n) {
+            throw new IllegalArgumentException("Columns shorter than " + n);
+        }
+        this.x = x;
+        this.y = y;
+        this.size = n;
+    }
+
+    public void add(double xValue, double yValue) {
+        if (size == x.length) {
+            int cap = (int) Math.min(Integer.MAX_VALUE - 8, (long) x.length * 2);
+            if (cap == size) throw new IllegalStateException("XYColumns is full");
+            x = Arrays.copyOf(x, cap);
+            y = Arrays.copyOf(y, cap);
+        }
+        x[size] = xValue;
+        y[size] = yValue;
+        size++;
+    }
+
+    public int size()            { return size; }
+    public double x(int i)       { return x[i]; }
+    public double y(int i)       { return y[i]; }
+    public void setY(int i, double v) { y[i] = v; }
+
+    // Backing arrays; only the first size() entries are meaningful.
+    public double[] xs()         { return x; }
+    public double[] ys()         { return y; }
+
+    // Converts to the List<double[]> shape the older methods use.
+    public List<double[]> toList() {
+        List<double[]> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(new double[] { x[i], y[i] });
+        return list;
+    }
+
+    public static XYColumns fromList(List<double[]> xyData) {
+        XYColumns cols = new XYColumns(xyData.size());
+        for (double[] pair : xyData) cols.add(pair[0], pair[1]);
+        return cols;
+    }
+}
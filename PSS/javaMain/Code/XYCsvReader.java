@@ -0,0 +1,226 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+// Shared X,Y CSV reader for the PSS tools.
+//
+// Reads raw bytes in large blocks and parses the first two comma-separated
+// fields of each line straight from the byte buffer, so there is no
+// readLine() String, no split() array and no double[] per row.  Rules are
+// the ones the tools always used:
+//   - the first line is skipped when it contains both an 'x' and a 'y'
+//     (any case), i.e. an "X,Y" header
+//   - lines with fewer than two fields are skipped silently
+//   - lines whose fields are not numbers are skipped with a message on stderr
+public class XYCsvReader {
+
+    // Receives each parsed row, in file order.
+    public interface RowHandler {
+        void row(double x, double y);
+
+        // Called when no more input is available right now and the next read
+        // may block (a live pipe or a followed file), e.g. to flush output.
+        default void idle() { }
+    }
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final RowHandler handler;
+    private boolean firstLine = true;
+    private boolean parseFailed;
+    private long rows;
+
+    private XYCsvReader(RowHandler handler) {
+        this.handler = handler;
+    }
+
+    // Reads a whole file into primitive columns (gzip if the name ends in ".gz").
+    public static XYColumns read(String inputCsv) throws IOException {
+        XYColumns cols = new XYColumns();
+        try (InputStream in = inputCsv.toLowerCase().endsWith(".gz")
+                ? new GZIPInputStream(new FileInputStream(inputCsv), 1 << 16)
+                : new FileInputStream(inputCsv)) {
+            read(in, cols::add);
+        }
+        return cols;
+    }
+
+    // Streams rows from any input (a file, stdin, a socket) to the handler.
+    // Returns the number of rows delivered.  Does not close the stream.
+    public static long read(InputStream in, RowHandler handler) throws IOException {
+        XYCsvReader reader = new XYCsvReader(handler);
+        byte[] buf = new byte[BUFFER_BYTES];
+        int filled = 0;     // bytes in buf
+        int start = 0;      // start of the current (unfinished) line
+        int scan = 0;       // where to resume looking for '\n'
+
+        while (true) {
+            int nl = -1;
+            for (int i = scan; i < filled; i++) {
+                if (buf[i] == '\n') {
+                    nl = i;
+                    break;
+                }
+            }
+            if (nl >= 0) {
+                reader.line(buf, start, nl);
+                start = nl + 1;
+                scan = start;
+                continue;
+            }
+
+            // No complete line left: keep the partial one and read more.
+            if (start > 0) {
+                System.arraycopy(buf, start, buf, 0, filled - start);
+                filled -= start;
+                start = 0;
+            }
+            if (filled == buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);    // very long line
+            }
+            scan = filled;
+            if (in.available() == 0) handler.idle();
+            int n = in.read(buf, filled, buf.length - filled);
+            if (n < 0) {
+                if (filled > 0) reader.line(buf, 0, filled);       // last line without '\n'
+                return reader.rows;
+            }
+            filled += n;
+        }
+    }
+
+    // Handles one line, buf[from, to), without the '\n'.
+    private void line(byte[] buf, int from, int to) {
+        if (to > from && buf[to - 1] == '\r') to--;
+
+        if (firstLine) {
+            firstLine = false;
+            if (looksLikeHeader(buf, from, to)) return;
+        }
+
+        int comma = indexOf(buf, from, to, (byte) ',');
+        if (comma < 0) return;                          // fewer than two fields
+        int end = indexOf(buf, comma + 1, to, (byte) ',');
+        if (end < 0) end = to;
+        if (onlyCommas(buf, comma + 1, to)) return;     // "1," / "1,,," have one field too
+
+        double x = parseDouble(buf, from, comma);
+        double y = parseFailed ? 0 : parseDouble(buf, comma + 1, end);
+        if (parseFailed) {
+            parseFailed = false;
+            System.err.println("Skipping invalid numeric line: "
+                               + new String(buf, from, to - from, StandardCharsets.UTF_8));
+            return;
+        }
+        handler.row(x, y);
+        rows++;
+    }
+
+    private static boolean looksLikeHeader(byte[] buf, int from, int to) {
+        boolean hasX = false, hasY = false;
+        for (int i = from; i < to; i++) {
+            byte b = buf[i];
+            if (b == 'x' || b == 'X') hasX = true;
+            if (b == 'y' || b == 'Y') hasY = true;
+        }
+        return hasX && hasY;
+    }
+
+    private static int indexOf(byte[] buf, int from, int to, byte target) {
+        for (int i = from; i < to; i++) if (buf[i] == target) return i;
+        return -1;
+    }
+
+    private static boolean onlyCommas(byte[] buf, int from, int to) {
+        for (int i = from; i < to; i++) if (buf[i] != ',') return false;
+        return true;
+    }
+
+    // Parses buf[from, to) (surrounding whitespace allowed) as a double.
+    // Plain decimals with up to 18 significant digits and a small exponent
+    // are converted exactly with one multiply/divide by a power of ten;
+    // everything else (17+ digit values, NaN, Infinity, hex) goes through
+    // Double.parseDouble so the result is always correctly rounded.
+    // Sets parseFailed instead of throwing.
+    private double parseDouble(byte[] buf, int from, int to) {
+        while (from < to && (buf[from] & 0xff) <= ' ') from++;
+        while (to > from && (buf[to - 1] & 0xff) <= ' ') to--;
+
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buf[i] == '-' || buf[i] == '+')) negative = buf[i++] == '-';
+
+        long mantissa = 0;
+        int digits = 0;         // significant digits in mantissa
+        int exp10 = 0;
+        boolean sawDigit = false;
+        for (; i < to && buf[i] >= '0' && buf[i] <= '9'; i++) {
+            sawDigit = true;
+            if (mantissa == 0 && buf[i] == '0') continue;      // leading zeros
+            if (digits < 18) {
+                mantissa = mantissa * 10 + (buf[i] - '0');
+                digits++;
+            } else {
+                return slowParse(buf, from, to);
+            }
+        }
+        if (i < to && buf[i] == '.') {
+            for (i++; i < to && buf[i] >= '0' && buf[i] <= '9'; i++) {
+                sawDigit = true;
+                if (mantissa == 0 && buf[i] == '0') {
+                    exp10--;
+                    continue;
+                }
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (buf[i] - '0');
+                    digits++;
+                    exp10--;
+                } else {
+                    return slowParse(buf, from, to);
+                }
+            }
+        }
+        if (!sawDigit) return slowParse(buf, from, to);
+        if (i < to && (buf[i] == 'e' || buf[i] == 'E')) {
+            i++;
+            boolean expNegative = false;
+            if (i < to && (buf[i] == '-' || buf[i] == '+')) expNegative = buf[i++] == '-';
+            int e = 0;
+            int expStart = i;
+            for (; i < to && buf[i] >= '0' && buf[i] <= '9'; i++) {
+                if (e < 10_000) e = e * 10 + (buf[i] - '0');
+            }
+            if (i == expStart) return slowParse(buf, from, to);
+            exp10 += expNegative ? -e : e;
+        }
+        if (i != to) return slowParse(buf, from, to);
+
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (mantissa < (1L << 53) && exp10 >= -22 && exp10 <= 22) {
+            value = exp10 < 0 ? mantissa / POW10[-exp10] : mantissa * POW10[exp10];
+        } else {
+            return slowParse(buf, from, to);
+        }
+        return negative ? -value : value;
+    }
+
+    private double slowParse(byte[] buf, int from, int to) {
+        try {
+            return Double.parseDouble(new String(buf, from, to - from, StandardCharsets.ISO_8859_1));
+        } catch (NumberFormatException e) {
+            parseFailed = true;
+            return 0;
+        }
+    }
+
+    // Exactly representable powers of ten.
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+}
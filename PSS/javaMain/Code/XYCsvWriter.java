@@ -0,0 +1,150 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// Shared X,Y CSV writer for the PSS tools.
+//
+// Rows are formatted by DoubleFormatter straight into one reusable 1 MB
+// byte buffer, which goes to the file through a FileChannel when full, so
+// writing a row creates no String and no garbage.  The text is what
+// PrintWriter.println(x + "," + y) wrote: "X,Y" header, Double.toString
+// layout, platform line separator (shortest digits; see DoubleFormatter).
+// Optional fixed precision writes every value with the same number of
+// decimals instead.  A file name ending in ".gz" is gzip-compressed.
+//
+// Also a XYCsvReader.RowHandler, so a reader can feed it directly; row()
+// reports I/O errors as UncheckedIOException since the handler can't throw.
+public class XYCsvWriter implements XYCsvReader.RowHandler, Closeable {
+
+    public static final int SHORTEST = -1;
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final byte[] HEADER = "X,Y".getBytes();
+    private static final byte[] NEWLINE = System.lineSeparator().getBytes();
+
+    private final WritableByteChannel out;
+    private final int decimals;
+    private final byte[] buf = new byte[BUFFER_BYTES];
+    private final ByteBuffer view = ByteBuffer.wrap(buf);
+    private final int rowRoom;          // worst-case bytes of one row
+    private int used;
+    private long rows;
+
+    // Writes to a file (gzip if the name ends in ".gz"), replacing it.
+    public static XYCsvWriter open(String file) throws IOException {
+        return open(file, SHORTEST);
+    }
+
+    // decimals >= 0 writes that many digits after the point (like "%.nf").
+    public static XYCsvWriter open(String file, int decimals) throws IOException {
+        FileChannel ch = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        if (!file.toLowerCase().endsWith(".gz")) return new XYCsvWriter(ch, decimals);
+        // Fastest deflate level: CSV digits still shrink ~2.5x, and the
+        // default level costs several times the CPU for a few percent more.
+        OutputStream gz = new GZIPOutputStream(Channels.newOutputStream(ch), BUFFER_BYTES) {
+            {
+                def.setLevel(Deflater.BEST_SPEED);
+            }
+        };
+        return new XYCsvWriter(Channels.newChannel(gz), decimals);
+    }
+
+    // Wraps any stream (e.g. System.out); close() closes it.
+    public XYCsvWriter(OutputStream out, int decimals) {
+        this(Channels.newChannel(out), decimals);
+    }
+
+    public XYCsvWriter(WritableByteChannel out, int decimals) {
+        if (decimals < SHORTEST) throw new IllegalArgumentException("decimals must be >= 0 or SHORTEST");
+        this.out = out;
+        this.decimals = decimals;
+        int valueRoom = decimals == SHORTEST ? DoubleFormatter.MAX_LENGTH : DoubleFormatter.maxFixedLength(decimals);
+        this.rowRoom = 2 * valueRoom + 1 + NEWLINE.length;
+        if (rowRoom > BUFFER_BYTES) throw new IllegalArgumentException("decimals too large: " + decimals);
+    }
+
+    // Writes a whole data set, header first, to a file.
+    public static void write(XYColumns data, String file) throws IOException {
+        try (XYCsvWriter w = open(file)) {
+            w.header();
+            for (int i = 0; i < data.size(); i++) w.row(data.x(i), data.y(i));
+        }
+    }
+
+    public static void write(List<double[]> data, String file) throws IOException {
+        try (XYCsvWriter w = open(file)) {
+            w.header();
+            for (double[] p : data) w.row(p[0], p[1]);
+        }
+    }
+
+    public void header() {
+        ensure(HEADER.length + NEWLINE.length);
+        System.arraycopy(HEADER, 0, buf, used, HEADER.length);
+        used += HEADER.length;
+        System.arraycopy(NEWLINE, 0, buf, used, NEWLINE.length);
+        used += NEWLINE.length;
+    }
+
+    @Override
+    public void row(double x, double y) {
+        ensure(rowRoom);
+        int p = value(x, used);
+        buf[p++] = ',';
+        p = value(y, p);
+        for (byte b : NEWLINE) buf[p++] = b;
+        used = p;
+        rows++;
+    }
+
+    // A reader with nothing more to give right now: push out what we have.
+    @Override
+    public void idle() {
+        try {
+            flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long rows() { return rows; }
+
+    public void flush() throws IOException {
+        view.clear().limit(used);
+        while (view.hasRemaining()) out.write(view);
+        used = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    private int value(double v, int pos) {
+        return decimals == SHORTEST ? DoubleFormatter.format(v, buf, pos)
+                                    : DoubleFormatter.formatFixed(v, decimals, buf, pos);
+    }
+
+    private void ensure(int room) {
+        if (used + room <= buf.length) return;
+        try {
+            flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
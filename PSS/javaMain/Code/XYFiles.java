@@ -0,0 +1,26 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+
+// Reads and writes X,Y data in whichever format the file name asks for:
+// ".xyb" is the binary columnar XYBinaryFormat, anything else is CSV
+// (gzipped when the name ends in ".gz").
+public class XYFiles {
+
+    private XYFiles() { }
+
+    public static boolean isBinary(String file) {
+        return file.toLowerCase().endsWith(XYBinaryFormat.EXTENSION);
+    }
+
+    public static XYColumns read(String file) throws IOException {
+        return isBinary(file) ? XYBinaryFormat.read(Paths.get(file)) : XYCsvReader.read(file);
+    }
+
+    public static void write(XYColumns data, String file) throws IOException {
+        if (isBinary(file)) {
+            XYBinaryFormat.write(Paths.get(file), data);
+            return;
+        }
+        XYCsvWriter.write(data, file);
+    }
+}